@@ -0,0 +1,168 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * StudentBenchmark class measures the throughput and allocation of StudentRepository operations
+ * By default it runs against an in-process H2 database in MySQL mode and then the in-memory
+ * repository, so the numbers can be reproduced on any machine without a MySQL server and
+ * backends can be compared side by side. Each operation gets timed warmup iterations
+ * followed by measured iterations on a single thread; allocation is read from the JVM's
+ * per-thread allocation counter
+ *
+ * Usage: java -cp "out:h2.jar" StudentBenchmark [h2|memory|embedded|mysql ...]
+ *        java -cp "out:h2.jar" StudentBenchmark jdbc-url [username [password]]
+ */
+public class StudentBenchmark {
+    private static final String H2_URL = "jdbc:h2:mem:student_bench;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final String[] DEFAULT_BACKENDS = {"h2", StudentRepositoryFactory.MEMORY};
+
+    private static final int SEED_ROWS = 10_000;
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+    private static final long ITERATION_NANOS = 1_000_000_000L;
+
+    // Results are folded into this field so the JIT cannot drop the calls
+    private static volatile long sink;
+
+    /**
+     * A single benchmarked call; returns a value derived from the result
+     */
+    private interface Operation {
+        long run();
+    }
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].startsWith("jdbc:")) {
+            String username = args.length > 1 ? args[1] : "sa";
+            String password = args.length > 2 ? args[2] : "";
+            benchmark(args[0], new DatabaseManager(args[0], username, password));
+            return;
+        }
+
+        for (String backend : args.length > 0 ? args : DEFAULT_BACKENDS) {
+            StudentRepository repository = backend.equals("h2")
+                    ? new DatabaseManager(H2_URL, "sa", "")
+                    : StudentRepositoryFactory.create(backend);
+            if (repository != null) {
+                benchmark(backend, repository);
+            }
+        }
+    }
+
+    /**
+     * Seeds one backend and prints a result table for it, then closes it
+     */
+    private static void benchmark(String name, StudentRepository repository) {
+        if (!repository.isConnectionActive()) {
+            System.out.println("Failed to establish database connection for " + name + ". Skipping.");
+            return;
+        }
+
+        try {
+            int firstId = seed(repository);
+            Random random = new Random(42);
+            int[] addCounter = {0};
+
+            System.out.printf("%nBenchmark (%s): %d seeded rows, %d warmup + %d measured iterations of %d ms%n%n",
+                    name, SEED_ROWS, WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS, ITERATION_NANOS / 1_000_000);
+            System.out.printf("%-22s %14s %12s %14s %12s%n", "OPERATION", "OPS/S", "+/- OPS/S", "US/OP", "BYTES/OP");
+            System.out.println("--------------------------------------------------------------------------------");
+
+            run("findStudentById", () -> {
+                Student student = repository.findStudentById(firstId + random.nextInt(SEED_ROWS));
+                return student == null ? 0 : student.getAge();
+            });
+            run("searchStudentsByName", () -> repository.searchStudentsByName("Student 12").size());
+            run("getAllStudents", () -> repository.getAllStudents().size());
+            run("getStudentCount", repository::getStudentCount);
+
+            // Runs last because it grows the table the read benchmarks scan
+            run("addStudent", () -> {
+                Student student = new Student("Bench Added", "added" + addCounter[0]++ + "@bench.example", 30, "Benchmarking");
+                return repository.addStudent(student) ? student.getId() : 0;
+            });
+
+        } finally {
+            repository.closeConnection();
+        }
+    }
+
+    /**
+     * Inserts the rows the read benchmarks work on
+     * @return The id of the first seeded row
+     */
+    private static int seed(StudentRepository repository) {
+        List<Student> students = new ArrayList<>(SEED_ROWS);
+        String[] courses = {"Computer Science", "Mathematics", "Physics", "Chemistry", "Biology"};
+        for (int i = 0; i < SEED_ROWS; i++) {
+            students.add(new Student("Student " + i, "student" + i + "@bench.example",
+                    16 + i % 60, courses[i % courses.length]));
+        }
+
+        BatchInsertResult result = repository.addStudents(students);
+        System.out.println("Seeded students: " + result);
+        return students.get(0).getId();
+    }
+
+    /**
+     * Runs warmup and measured iterations of one operation and prints a result row
+     */
+    private static void run(String name, Operation operation) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            iterate(operation);
+        }
+
+        double[] opsPerSecond = new double[MEASUREMENT_ITERATIONS];
+        long totalOps = 0;
+        long totalNanos = 0;
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            long ops = iterate(operation);
+            long elapsed = System.nanoTime() - start;
+
+            opsPerSecond[i] = ops * 1e9 / elapsed;
+            totalOps += ops;
+            totalNanos += elapsed;
+        }
+
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        double mean = 0;
+        for (double value : opsPerSecond) {
+            mean += value;
+        }
+        mean /= opsPerSecond.length;
+
+        double variance = 0;
+        for (double value : opsPerSecond) {
+            variance += (value - mean) * (value - mean);
+        }
+        double stdDev = Math.sqrt(variance / opsPerSecond.length);
+
+        System.out.printf("%-22s %14.1f %12.1f %14.2f %12d%n",
+                name, mean, stdDev, totalNanos / 1e3 / totalOps, allocated / totalOps);
+    }
+
+    /**
+     * Calls the operation repeatedly for one iteration period
+     * @return Number of calls made
+     */
+    private static long iterate(Operation operation) {
+        long deadline = System.nanoTime() + ITERATION_NANOS;
+        long ops = 0;
+        long acc = 0;
+        do {
+            acc += operation.run();
+            ops++;
+        } while (System.nanoTime() < deadline);
+        sink += acc;
+        return ops;
+    }
+}
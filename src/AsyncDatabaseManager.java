@@ -0,0 +1,158 @@
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * AsyncDatabaseManager class provides a non-blocking facade over DatabaseManager
+ * Each call runs on its own virtual thread, so thousands of lookups can be in
+ * flight without a platform thread per request. The number of calls actually
+ * talking to the database is bounded by the connection pool size; the rest wait
+ * cheaply for a permit instead of timing out in ConnectionPool.borrow()
+ *
+ * Returned futures time out after the configured limit and can be cancelled.
+ * Either one cancels the statement the call is running (Statement.cancel), so
+ * the connection and permit are freed at once, and then interrupts the worker
+ * thread. JDBC socket reads ignore interrupts, so the interrupt alone would leave
+ * the statement running until the pool's query timeout
+ */
+public class AsyncDatabaseManager implements AutoCloseable {
+    private final StudentRepository dbManager;
+    // Pool whose statements are cancelled, or null for backends without JDBC connections
+    private final ConnectionPool pool;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final long timeoutMillis;
+
+    /**
+     * Creates an async facade bounded by the pool size with the default query timeout
+     * @param dbManager The connected database manager to delegate to
+     */
+    public AsyncDatabaseManager(DatabaseManager dbManager) {
+        this(dbManager,
+                dbManager.getConnectionPool().getMaxConnections(),
+                TimeUnit.SECONDS.toMillis(DatabaseConfig.QUERY_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * Creates an async facade over any storage backend
+     * @param dbManager The connected repository to delegate to
+     * @param maxConcurrency Maximum number of calls running against the database at once
+     * @param timeoutMillis Time after which a returned future fails with TimeoutException (0 means no limit)
+     */
+    public AsyncDatabaseManager(StudentRepository dbManager, int maxConcurrency, long timeoutMillis) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        this.dbManager = dbManager;
+        this.pool = dbManager instanceof DatabaseManager ? ((DatabaseManager) dbManager).getConnectionPool() : null;
+        this.permits = new Semaphore(maxConcurrency);
+        this.timeoutMillis = timeoutMillis;
+        this.executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("db-async-", 0).factory());
+    }
+
+    public CompletableFuture<Boolean> addStudentAsync(Student student) {
+        return submit(() -> dbManager.addStudent(student));
+    }
+
+    public CompletableFuture<BatchInsertResult> addStudentsAsync(Iterable<Student> students) {
+        return submit(() -> dbManager.addStudents(students));
+    }
+
+    public CompletableFuture<Student> findStudentByIdAsync(int id) {
+        return submit(() -> dbManager.findStudentById(id));
+    }
+
+    public CompletableFuture<List<Student>> getStudentsAfterAsync(int lastId, int pageSize) {
+        return submit(() -> dbManager.getStudentsAfter(lastId, pageSize));
+    }
+
+    public CompletableFuture<List<Student>> getAllStudentsAsync() {
+        return submit(dbManager::getAllStudents);
+    }
+
+    public CompletableFuture<Boolean> updateStudentAsync(int id, Student student) {
+        return submit(() -> dbManager.updateStudent(id, student));
+    }
+
+    public CompletableFuture<Boolean> deleteStudentAsync(int id) {
+        return submit(() -> dbManager.deleteStudent(id));
+    }
+
+    public CompletableFuture<List<Student>> searchStudentsByNameAsync(String namePattern) {
+        return submit(() -> dbManager.searchStudentsByName(namePattern));
+    }
+
+    public CompletableFuture<Integer> getStudentCountAsync() {
+        return submit(dbManager::getStudentCount);
+    }
+
+    /**
+     * Runs a task on a virtual thread once a concurrency permit is available
+     * @param task The blocking database call
+     * @return Future completed with the task's result
+     */
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicReference<Thread> runner = new AtomicReference<>();
+
+        Future<?> worker = executor.submit(() -> {
+            runner.set(Thread.currentThread());
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                result.cancel(false);
+                return;
+            }
+            try {
+                // Skip the database call if the caller gave up while waiting for a permit
+                if (!result.isDone()) {
+                    result.complete(task.call());
+                }
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                permits.release();
+            }
+        });
+
+        // Stop the statement, then interrupt the worker, when the caller cancels or the future times out
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled() || error instanceof TimeoutException) {
+                Thread thread = runner.get();
+                if (pool != null && thread != null) {
+                    pool.cancelStatements(thread);
+                }
+                worker.cancel(true);
+            }
+        });
+
+        if (timeoutMillis > 0) {
+            result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of calls waiting for a concurrency permit
+     * @return Approximate queue length
+     */
+    public int getQueuedCount() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Stops accepting new calls and waits for running calls to finish
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
@@ -0,0 +1,362 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BatchCommandRunner class executes student operations read from a command file
+ * This is the headless alternative to the interactive menu. Each line holds one
+ * operation with fields separated by '|':
+ *
+ *   add|name|email|age|course
+ *   get|id
+ *   update|id|name|email|age|course
+ *   delete|id
+ *   search|name text
+ *
+ * Blank lines and lines starting with '#' are ignored. Consecutive adds are
+ * merged into JDBC batches; other operations run in groups of up to
+ * DatabaseConfig.BATCH_SIZE commands sharing one connection and one commit.
+ * Every command produces one or more result lines of the form
+ *
+ *   OK|line|operation[|details]
+ *   NOT_FOUND|line|operation|id
+ *   ERROR|line|operation|message
+ *
+ * where details for a student are id|name|email|age|course
+ */
+public class BatchCommandRunner {
+    private static final String SEPARATOR = "|";
+    private static final String SEPARATOR_REGEX = "\\|";
+
+    private final DatabaseManager dbManager;
+    private final PrintWriter out;
+    private final int groupSize;
+    // Reused for every command, so validating an add or update allocates nothing
+    private final ValidationResult validation = new ValidationResult();
+
+    private int commandCount;
+    private int errorCount;
+
+    /**
+     * Creates a runner that groups up to DatabaseConfig.BATCH_SIZE commands per transaction
+     * @param dbManager The connected database manager
+     * @param out Destination for result lines
+     */
+    public BatchCommandRunner(DatabaseManager dbManager, Writer out) {
+        this(dbManager, out, DatabaseConfig.BATCH_SIZE);
+    }
+
+    /**
+     * Creates a runner
+     * @param dbManager The connected database manager
+     * @param out Destination for result lines
+     * @param groupSize Maximum number of commands per batch or transaction
+     */
+    public BatchCommandRunner(DatabaseManager dbManager, Writer out, int groupSize) {
+        if (groupSize <= 0) {
+            throw new IllegalArgumentException("groupSize must be positive");
+        }
+        this.dbManager = dbManager;
+        this.out = new PrintWriter(out);
+        this.groupSize = groupSize;
+    }
+
+    /**
+     * Reads and executes every command from the reader
+     * @param in Source of command lines
+     * @return true if every command succeeded, false if any produced an ERROR line
+     * @throws IOException if reading the commands fails
+     */
+    public boolean run(BufferedReader in) throws IOException {
+        List<Command> group = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+
+            commandCount++;
+            Command command;
+            try {
+                command = Command.parse(lineNumber, trimmed, validation);
+            } catch (IllegalArgumentException e) {
+                // Flush pending commands first so results stay in input order
+                if (!group.isEmpty()) {
+                    executeGroup(group);
+                    group.clear();
+                }
+                writeError(lineNumber, trimmed.split(SEPARATOR_REGEX, 2)[0], e.getMessage());
+                continue;
+            }
+
+            // Adds and other operations are executed in separate groups to keep input order
+            if (!group.isEmpty() && (group.size() == groupSize || group.get(0).isAdd() != command.isAdd())) {
+                executeGroup(group);
+                group.clear();
+            }
+            group.add(command);
+        }
+
+        if (!group.isEmpty()) {
+            executeGroup(group);
+        }
+        out.flush();
+        return errorCount == 0;
+    }
+
+    /**
+     * Gets the number of commands read
+     * @return Command count, excluding blank and comment lines
+     */
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * Gets the number of commands that failed
+     * @return Error count
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    private void executeGroup(List<Command> group) {
+        if (group.get(0).isAdd()) {
+            executeAddGroup(group);
+        } else {
+            executeTransactionGroup(group);
+        }
+    }
+
+    /**
+     * Inserts a run of consecutive adds through DatabaseManager.addStudents
+     */
+    private void executeAddGroup(List<Command> group) {
+        List<Student> students = new ArrayList<>(group.size());
+        for (Command command : group) {
+            students.add(command.student);
+        }
+
+        BatchInsertResult result = dbManager.addStudents(students, groupSize);
+        Map<Integer, BatchInsertResult.RejectedRow> rejected = new HashMap<>();
+        for (BatchInsertResult.RejectedRow row : result.getRejectedRows()) {
+            rejected.put(row.getIndex(), row);
+        }
+
+        for (int i = 0; i < group.size(); i++) {
+            Command command = group.get(i);
+            BatchInsertResult.RejectedRow row = rejected.get(i);
+            if (row != null) {
+                writeError(command.lineNumber, command.operation, row.getMessage());
+            } else if (command.student.getId() > 0) {
+                writeLine("OK", command.lineNumber, command.operation, String.valueOf(command.student.getId()));
+            } else {
+                writeError(command.lineNumber, command.operation, "Student was not inserted");
+            }
+        }
+    }
+
+    /**
+     * Runs a group of get/update/delete/search commands in one DatabaseManager.inTransaction unit
+     * A command that fails on its own, such as a duplicate email, is reported and the rest of
+     * the group continues. A failure that rolls back the whole transaction (a deadlock, a
+     * serialization failure or a lock wait timeout) fails the group instead, so no command is
+     * reported OK for a change that was undone; deadlocks and serialization failures are
+     * retried from the start first. Results are only written once the transaction has committed
+     */
+    private void executeTransactionGroup(List<Command> group) {
+        List<String[]> results;
+        try {
+            results = dbManager.inTransaction(tx -> {
+                // Fresh on every attempt, because a retried transaction runs the whole group again
+                List<String[]> attemptResults = new ArrayList<>();
+                for (Command command : group) {
+                    try {
+                        executeInTransaction(tx, command, attemptResults);
+                    } catch (SQLException e) {
+                        if (DatabaseManager.rollsBackTransaction(e)) {
+                            throw e;
+                        }
+                        // Only this statement was rolled back, the rest of the transaction stays intact
+                        String message = e.getErrorCode() == DatabaseManager.DUPLICATE_ENTRY_ERROR_CODE
+                                ? "Email already exists" : e.getMessage();
+                        attemptResults.add(new String[]{"ERROR", String.valueOf(command.lineNumber),
+                                command.operation, clean(message)});
+                    }
+                }
+                return attemptResults;
+            });
+        } catch (SQLException e) {
+            // The whole group was rolled back
+            for (Command command : group) {
+                writeError(command.lineNumber, command.operation, "Transaction failed: " + e.getMessage());
+            }
+            return;
+        }
+
+        for (String[] result : results) {
+            if (result[0].equals("ERROR")) {
+                errorCount++;
+            }
+            out.println(String.join(SEPARATOR, result));
+        }
+    }
+
+    private static void executeInTransaction(Transaction tx, Command command, List<String[]> results)
+            throws SQLException {
+        String line = String.valueOf(command.lineNumber);
+
+        switch (command.operation) {
+            case "get": {
+                Student student = tx.findStudentById(command.id);
+                if (student == null) {
+                    results.add(new String[]{"NOT_FOUND", line, command.operation, String.valueOf(command.id)});
+                } else {
+                    results.add(new String[]{"OK", line, command.operation, formatStudent(student)});
+                }
+                break;
+            }
+            case "update": {
+                boolean updated = tx.updateStudent(command.id, command.student);
+                results.add(updated
+                        ? new String[]{"OK", line, command.operation, String.valueOf(command.id)}
+                        : new String[]{"NOT_FOUND", line, command.operation, String.valueOf(command.id)});
+                break;
+            }
+            case "delete": {
+                boolean deleted = tx.deleteStudent(command.id);
+                results.add(deleted
+                        ? new String[]{"OK", line, command.operation, String.valueOf(command.id)}
+                        : new String[]{"NOT_FOUND", line, command.operation, String.valueOf(command.id)});
+                break;
+            }
+            case "search": {
+                List<Student> students = tx.searchStudentsByName(command.text);
+                for (Student student : students) {
+                    results.add(new String[]{"OK", line, command.operation, formatStudent(student)});
+                }
+                if (students.isEmpty()) {
+                    results.add(new String[]{"NOT_FOUND", line, command.operation, command.text});
+                }
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unexpected operation: " + command.operation);
+        }
+    }
+
+    private static String formatStudent(Student student) {
+        return student.getId() + SEPARATOR + student.getName() + SEPARATOR + student.getEmail()
+                + SEPARATOR + student.getAge() + SEPARATOR + student.getCourse();
+    }
+
+    private void writeLine(String status, int lineNumber, String operation, String details) {
+        out.println(status + SEPARATOR + lineNumber + SEPARATOR + operation + SEPARATOR + details);
+    }
+
+    private void writeError(int lineNumber, String operation, String message) {
+        errorCount++;
+        writeLine("ERROR", lineNumber, operation, clean(message));
+    }
+
+    /**
+     * Keeps a free-text message on one result line without extra fields
+     */
+    private static String clean(String message) {
+        return message == null ? "" : message.replace('|', '/').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    /**
+     * Command holds one parsed and validated line of the command file
+     */
+    private static class Command {
+        final int lineNumber;
+        final String operation;
+        int id;
+        Student student;
+        String text;
+
+        private Command(int lineNumber, String operation) {
+            this.lineNumber = lineNumber;
+            this.operation = operation;
+        }
+
+        boolean isAdd() {
+            return operation.equals("add");
+        }
+
+        /**
+         * Parses a command line, applying the same rules as the interactive prompts
+         * @param validation Reused for the student fields of adds and updates
+         * @throws IllegalArgumentException if the line is malformed or a field is invalid
+         */
+        static Command parse(int lineNumber, String line, ValidationResult validation) {
+            String[] fields = line.split(SEPARATOR_REGEX, -1);
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = fields[i].trim();
+            }
+
+            Command command = new Command(lineNumber, fields[0].toLowerCase());
+            switch (command.operation) {
+                case "add":
+                    expectFields(fields, 5, "add|name|email|age|course");
+                    command.student = parseStudent(fields, 1, validation);
+                    break;
+                case "update":
+                    expectFields(fields, 6, "update|id|name|email|age|course");
+                    command.id = parseInt(fields[1], "id");
+                    command.student = parseStudent(fields, 2, validation);
+                    break;
+                case "get":
+                case "delete":
+                    expectFields(fields, 2, command.operation + "|id");
+                    command.id = parseInt(fields[1], "id");
+                    break;
+                case "search":
+                    expectFields(fields, 2, "search|name");
+                    if (fields[1].isEmpty()) {
+                        throw new IllegalArgumentException("Search text cannot be empty");
+                    }
+                    command.text = fields[1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown operation: " + fields[0]);
+            }
+            return command;
+        }
+
+        private static void expectFields(String[] fields, int count, String usage) {
+            if (fields.length != count) {
+                throw new IllegalArgumentException("Expected " + usage);
+            }
+        }
+
+        private static int parseInt(String value, String field) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + field + ": " + value);
+            }
+        }
+
+        private static Student parseStudent(String[] fields, int offset, ValidationResult validation) {
+            String name = fields[offset];
+            String email = fields[offset + 1];
+            String course = fields[offset + 3];
+            if (!StudentValidator.validate(name, email, fields[offset + 2], course, validation)) {
+                throw new IllegalArgumentException(validation.describeErrors());
+            }
+            return new Student(name, email.toLowerCase(), validation.getAge(), course);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * BatchInsertResult class reports the outcome of a bulk insert
+ * Rows that were rejected (for example duplicate emails) are listed
+ * individually, while the rest of the batch is still committed
+ */
+public class BatchInsertResult {
+    private int insertedCount;
+    private final List<RejectedRow> rejectedRows = new ArrayList<>();
+
+    void recordInserted() {
+        insertedCount++;
+    }
+
+    void recordRejected(int index, Student student, int errorCode, String message) {
+        rejectedRows.add(new RejectedRow(index, student, errorCode, message));
+    }
+
+    /**
+     * Gets the number of rows that were inserted and committed
+     * @return Inserted row count
+     */
+    public int getInsertedCount() {
+        return insertedCount;
+    }
+
+    /**
+     * Gets the rows that could not be inserted
+     * @return Unmodifiable list of rejected rows in input order
+     */
+    public List<RejectedRow> getRejectedRows() {
+        return Collections.unmodifiableList(rejectedRows);
+    }
+
+    /**
+     * Checks if every row was inserted
+     * @return true if no rows were rejected, false otherwise
+     */
+    public boolean isFullySuccessful() {
+        return rejectedRows.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Inserted: %d, Rejected: %d", insertedCount, rejectedRows.size());
+    }
+
+    /**
+     * RejectedRow describes a single row that failed to insert
+     */
+    public static class RejectedRow {
+        private final int index;
+        private final Student student;
+        private final int errorCode;
+        private final String message;
+
+        RejectedRow(int index, Student student, int errorCode, String message) {
+            this.index = index;
+            this.student = student;
+            this.errorCode = errorCode;
+            this.message = message;
+        }
+
+        /**
+         * Gets the zero-based position of the row in the input
+         * @return Row index
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public Student getStudent() {
+            return student;
+        }
+
+        public int getErrorCode() {
+            return errorCode;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * Checks if the row was rejected because its email already exists
+         * @return true for a duplicate entry error, false otherwise
+         */
+        public boolean isDuplicate() {
+            return errorCode == DatabaseManager.DUPLICATE_ENTRY_ERROR_CODE;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Row %d (%s): %s", index, student.getEmail(), message);
+        }
+    }
+}
@@ -0,0 +1,444 @@
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ConnectionPool class manages a bounded set of JDBC connections
+ * Connections are created lazily up to the configured maximum, validated
+ * on borrow, evicted after sitting idle too long and reported when a
+ * caller holds one longer than the leak detection threshold
+ */
+public class ConnectionPool {
+    // Operation name used for borrows that do not name one
+    public static final String UNLABELLED_OPERATION = "unlabelled";
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maxConnections;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final int statementCacheSize;
+
+    // One permit per connection that may exist at the same time
+    private final Semaphore permits;
+
+    // Idle connections, most recently returned first (guarded by this)
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> borrowed = new HashSet<>();
+
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+    private volatile int queryTimeoutSeconds = DatabaseConfig.QUERY_TIMEOUT_SECONDS;
+
+    // Statement cache counters aggregated across all connections
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    // Per-operation query metrics, null when DatabaseConfig.QUERY_METRICS_ENABLED is false
+    private final QueryMetrics queryMetrics;
+
+    // Slow statement log, null when DatabaseConfig.SLOW_QUERY_LOG_ENABLED is false
+    private final SlowQueryLog slowQueryLog;
+
+    /**
+     * Creates a pool using the settings from DatabaseConfig
+     * @param url JDBC URL
+     * @param username Database user
+     * @param password Database password
+     */
+    public ConnectionPool(String url, String username, String password) {
+        this(url, username, password,
+                DatabaseConfig.MAX_CONNECTIONS,
+                DatabaseConfig.CONNECTION_TIMEOUT,
+                DatabaseConfig.IDLE_TIMEOUT,
+                DatabaseConfig.LEAK_DETECTION_THRESHOLD,
+                DatabaseConfig.STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a pool with explicit settings
+     * @param url JDBC URL
+     * @param username Database user
+     * @param password Database password
+     * @param maxConnections Maximum number of open connections
+     * @param borrowTimeoutMillis How long borrow() waits for a free connection
+     * @param idleTimeoutMillis How long a connection may sit idle before it is closed
+     * @param leakThresholdMillis How long a connection may be held before a leak is reported (0 disables)
+     * @param statementCacheSize Maximum cached PreparedStatements per connection (0 disables)
+     */
+    public ConnectionPool(String url, String username, String password, int maxConnections,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis,
+                          int statementCacheSize) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("maxConnections must be positive");
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxConnections = maxConnections;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxConnections, true);
+        this.queryMetrics = DatabaseConfig.QUERY_METRICS_ENABLED ? new QueryMetrics() : null;
+        if (queryMetrics != null) {
+            queryMetrics.registerMBean();
+        }
+        this.slowQueryLog = DatabaseConfig.SLOW_QUERY_LOG_ENABLED ? new SlowQueryLog() : null;
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMillis, DatabaseConfig.POOL_HOUSEKEEPING_INTERVAL));
+        housekeeper.scheduleAtFixedRate(this::housekeeping, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool for an unnamed operation
+     * @return A validated connection; close it to return it to the pool
+     * @throws SQLTimeoutException if no connection became available in time
+     * @throws SQLException if the pool is closed or a connection cannot be opened
+     */
+    public PooledConnection borrow() throws SQLException {
+        return borrow(UNLABELLED_OPERATION);
+    }
+
+    /**
+     * Borrows a connection from the pool, waiting up to the borrow timeout
+     * @param operation Name the statements run on this connection are recorded under in the query metrics
+     * @return A validated connection; close it to return it to the pool
+     * @throws SQLTimeoutException if no connection became available in time
+     * @throws SQLException if the pool is closed or a connection cannot be opened
+     */
+    public PooledConnection borrow(String operation) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            PooledConnection pooled = acquire(operation);
+            if (queryMetrics != null) {
+                queryMetrics.recordPoolWait(System.nanoTime() - start);
+            }
+            return pooled;
+        } catch (SQLException e) {
+            if (queryMetrics != null) {
+                queryMetrics.recordError(operation, e.getErrorCode());
+            }
+            throw e;
+        }
+    }
+
+    private PooledConnection acquire(String operation) throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Timed out after " + borrowTimeoutMillis
+                        + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeValidIdleConnection();
+            if (pooled == null) {
+                pooled = new PooledConnection(this, DriverManager.getConnection(url, username, password));
+            }
+
+            synchronized (this) {
+                if (closed) {
+                    pooled.closePhysical();
+                    throw new SQLException("Connection pool is closed");
+                }
+                pooled.markBorrowed(operation, Thread.currentThread());
+                borrowed.add(pooled);
+            }
+            return pooled;
+
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Takes idle connections until one passes validation
+     * @return A valid idle connection, or null if none are left
+     */
+    private PooledConnection takeValidIdleConnection() {
+        while (true) {
+            PooledConnection candidate;
+            synchronized (this) {
+                candidate = idle.pollFirst();
+            }
+            if (candidate == null) {
+                return null;
+            }
+            if (isValid(candidate.getConnection())) {
+                return candidate;
+            }
+            candidate.closePhysical();
+        }
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(DatabaseConfig.VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns a connection to the pool (called from PooledConnection.close)
+     * @param pooled The connection being returned
+     */
+    void release(PooledConnection pooled) {
+        synchronized (this) {
+            if (!borrowed.remove(pooled)) {
+                return; // Already returned
+            }
+            pooled.markReturned();
+        }
+
+        boolean reusable = !closed && resetState(pooled);
+
+        synchronized (this) {
+            reusable = reusable && !closed;
+            if (reusable) {
+                idle.addFirst(pooled);
+            }
+        }
+        if (!reusable) {
+            pooled.closePhysical();
+        }
+        permits.release();
+    }
+
+    /**
+     * Rolls back unfinished work and restores autocommit and the isolation level
+     * so the next borrower gets a connection in its default state
+     * @return true if the connection can be reused, false if it should be discarded
+     */
+    private boolean resetState(PooledConnection pooled) {
+        Connection connection = pooled.getConnection();
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            pooled.restoreTransactionIsolation();
+            connection.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Periodic task that evicts idle connections and reports suspected leaks
+     */
+    private void housekeeping() {
+        long now = System.currentTimeMillis();
+        List<PooledConnection> evicted = new ArrayList<>();
+
+        synchronized (this) {
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.getLastReturnedAt() > idleTimeoutMillis) {
+                    it.remove();
+                    evicted.add(pooled);
+                }
+            }
+
+            if (leakThresholdMillis > 0) {
+                for (PooledConnection pooled : borrowed) {
+                    if (!pooled.isLeakReported() && now - pooled.getBorrowedAt() > leakThresholdMillis) {
+                        pooled.setLeakReported(true);
+                        Thread borrower = pooled.getBorrower();
+                        System.out.println("Warning: possible connection leak, connection held for "
+                                + (now - pooled.getBorrowedAt()) + " ms by " + pooled.getOperation()
+                                + " on thread " + borrower.getName());
+                        // Captured only now, so borrowing stays free of stack walks; shows where the holder is
+                        for (StackTraceElement element : borrower.getStackTrace()) {
+                            System.out.println("\tat " + element);
+                        }
+                    }
+                }
+            }
+        }
+
+        for (PooledConnection pooled : evicted) {
+            pooled.closePhysical();
+        }
+    }
+
+    /**
+     * Cancels the running statements of every connection a thread has borrowed
+     * Used to abandon a call that timed out or was cancelled while it waits on the database
+     * @param borrower The thread that borrowed the connections
+     */
+    public void cancelStatements(Thread borrower) {
+        List<PooledConnection> held = new ArrayList<>();
+        synchronized (this) {
+            for (PooledConnection pooled : borrowed) {
+                if (pooled.getBorrower() == borrower) {
+                    held.add(pooled);
+                }
+            }
+        }
+        // Outside the pool lock: cancelling can take a round trip to the server
+        for (PooledConnection pooled : held) {
+            pooled.cancel(borrower);
+        }
+    }
+
+    /**
+     * Gets the number of connections currently borrowed
+     * @return Active connection count
+     */
+    public synchronized int getActiveCount() {
+        return borrowed.size();
+    }
+
+    /**
+     * Gets the number of open connections waiting in the pool
+     * @return Idle connection count
+     */
+    public synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Gets the maximum number of connections this pool will open
+     * @return Maximum pool size
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Gets the maximum number of cached PreparedStatements per connection
+     * @return Statement cache size
+     */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * Gets the query timeout applied to statements handed out by pooled connections
+     * @return Timeout in seconds, 0 means no limit
+     */
+    public int getQueryTimeoutSeconds() {
+        return queryTimeoutSeconds;
+    }
+
+    /**
+     * Sets the query timeout applied to statements handed out by pooled connections
+     * @param queryTimeoutSeconds Timeout in seconds, 0 means no limit
+     */
+    public void setQueryTimeoutSeconds(int queryTimeoutSeconds) {
+        if (queryTimeoutSeconds < 0) {
+            throw new IllegalArgumentException("queryTimeoutSeconds must not be negative");
+        }
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
+    }
+
+    /**
+     * Gets the total number of statement cache hits across all connections
+     * @return Cache hit count
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    /**
+     * Gets the total number of statement cache misses across all connections
+     * @return Cache miss count
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+
+    /**
+     * Gets the per-operation query metrics collected by this pool
+     * @return The metrics, or null if DatabaseConfig.QUERY_METRICS_ENABLED is false
+     */
+    public QueryMetrics getQueryMetrics() {
+        return queryMetrics;
+    }
+
+    /**
+     * Gets the log that records statements slower than its threshold
+     * @return The slow-query log, or null if DatabaseConfig.SLOW_QUERY_LOG_ENABLED is false
+     */
+    public SlowQueryLog getSlowQueryLog() {
+        return slowQueryLog;
+    }
+
+    void recordStatementCacheHit() {
+        statementCacheHits.increment();
+    }
+
+    void recordStatementCacheMiss() {
+        statementCacheMisses.increment();
+    }
+
+    /**
+     * Checks if the pool has been closed
+     * @return true if closed, false otherwise
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Closes all idle connections and stops the pool
+     * Borrowed connections are closed when they are returned
+     */
+    public void close() {
+        List<PooledConnection> toClose;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+        }
+        housekeeper.shutdownNow();
+        if (queryMetrics != null) {
+            queryMetrics.unregisterMBean();
+        }
+        if (slowQueryLog != null) {
+            slowQueryLog.close();
+        }
+        for (PooledConnection pooled : toClose) {
+            pooled.closePhysical();
+        }
+    }
+}
@@ -0,0 +1,541 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CsvImporter class loads students from a CSV file through a parallel pipeline
+ * The file is split into byte ranges of DatabaseConfig.CSV_CHUNK_BYTES. Parser threads
+ * (one per core) read their range, memory-mapped for files above
+ * DatabaseConfig.CSV_MMAP_THRESHOLD, split it into rows and validate each row with the
+ * same rules as the interactive prompts. Valid rows are handed over in batches to
+ * inserter threads, each of which writes through DatabaseManager.addStudents on its own
+ * pooled connection. Rows rejected by either stage are written, in file order, to an
+ * error file together with the reason
+ *
+ * Expected format, one student per line with an optional header:
+ *
+ *   name,email,age,course
+ *   John Smith,john@example.com,21,Computer Science
+ *
+ * Fields may be enclosed in double quotes ("" inside quotes is a literal quote).
+ * Quoted fields cannot span lines
+ */
+public class CsvImporter {
+    private static final String HEADER = "name,email,age,course";
+
+    private final DatabaseManager dbManager;
+    private final int parserThreads;
+    private final int inserterThreads;
+    private final int batchSize;
+
+    /**
+     * Creates an importer with the settings from DatabaseConfig
+     * @param dbManager The connected database manager
+     */
+    public CsvImporter(DatabaseManager dbManager) {
+        this(dbManager, Runtime.getRuntime().availableProcessors(),
+                DatabaseConfig.CSV_IMPORT_INSERT_THREADS, DatabaseConfig.BATCH_SIZE);
+    }
+
+    /**
+     * Creates an importer
+     * @param dbManager The connected database manager
+     * @param parserThreads Threads reading and validating the file
+     * @param inserterThreads Threads inserting rows, each holding one pooled connection while busy
+     * @param batchSize Rows per JDBC batch and transaction
+     */
+    public CsvImporter(DatabaseManager dbManager, int parserThreads, int inserterThreads, int batchSize) {
+        if (parserThreads <= 0 || inserterThreads <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Thread counts and batch size must be positive");
+        }
+        this.dbManager = dbManager;
+        this.parserThreads = parserThreads;
+        this.inserterThreads = inserterThreads;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports every row of a CSV file
+     * @param csvFile The file to read
+     * @param errorFile Where rejected rows are written (created even when empty)
+     * @return Counts and timing of the import
+     * @throws IOException if the file cannot be read or the error file cannot be written
+     */
+    public Result importFile(Path csvFile, Path errorFile) throws IOException {
+        long start = System.nanoTime();
+        ConcurrentLinkedQueue<Rejection> rejections = new ConcurrentLinkedQueue<>();
+        AtomicInteger insertedCount = new AtomicInteger();
+
+        try (FileChannel channel = FileChannel.open(csvFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer wholeFile = size < DatabaseConfig.CSV_MMAP_THRESHOLD ? readFully(channel, size) : null;
+
+            int chunkCount = (int) Math.max(1, (size + DatabaseConfig.CSV_CHUNK_BYTES - 1) / DatabaseConfig.CSV_CHUNK_BYTES);
+            Chunk[] chunks = new Chunk[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                long from = (long) i * DatabaseConfig.CSV_CHUNK_BYTES;
+                chunks[i] = new Chunk(i, from, Math.min(size, from + DatabaseConfig.CSV_CHUNK_BYTES));
+            }
+
+            // Bounded so parsers wait for the database instead of buffering the whole file
+            BlockingQueue<Batch> batches = new ArrayBlockingQueue<>(inserterThreads * 2);
+            ExecutorService parsers = Executors.newFixedThreadPool(Math.min(parserThreads, chunkCount),
+                    namedThreads("csv-parser"));
+            ExecutorService inserters = Executors.newFixedThreadPool(inserterThreads, namedThreads("csv-inserter"));
+
+            try {
+                List<Future<?>> inserterResults = new ArrayList<>();
+                for (int i = 0; i < inserterThreads; i++) {
+                    inserterResults.add(inserters.submit(() -> insertLoop(batches, rejections, insertedCount)));
+                }
+
+                List<Future<?>> parserResults = new ArrayList<>();
+                for (Chunk chunk : chunks) {
+                    parserResults.add(parsers.submit(() -> {
+                        parseChunk(channel, wholeFile, size, chunk, batches, rejections);
+                        return null;
+                    }));
+                }
+
+                IOException failure = null;
+                for (Future<?> future : parserResults) {
+                    failure = await(future, failure);
+                }
+                for (int i = 0; i < inserterThreads; i++) {
+                    putUninterruptibly(batches, Batch.END);
+                }
+                for (Future<?> future : inserterResults) {
+                    failure = await(future, failure);
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+
+            } finally {
+                parsers.shutdownNow();
+                inserters.shutdownNow();
+            }
+
+            // Line numbers are only known once every chunk has counted its lines
+            long[] firstLine = new long[chunkCount];
+            long line = 1;
+            long totalRows = 0;
+            for (int i = 0; i < chunkCount; i++) {
+                firstLine[i] = line;
+                line += chunks[i].lineCount;
+                totalRows += chunks[i].rowCount;
+            }
+
+            List<Rejection> rejected = new ArrayList<>(rejections);
+            for (Rejection rejection : rejected) {
+                rejection.line = firstLine[rejection.chunk] + rejection.localLine;
+            }
+            rejected.sort(Comparator.comparingLong(r -> r.line));
+            writeErrors(errorFile, rejected);
+
+            return new Result(totalRows, insertedCount.get(), rejected.size(), System.nanoTime() - start);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+            // keep reading until the buffer is full
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Parses the rows owned by one chunk: those whose first byte lies in [from, to)
+     */
+    private void parseChunk(FileChannel channel, ByteBuffer wholeFile, long size, Chunk chunk,
+                            BlockingQueue<Batch> batches, ConcurrentLinkedQueue<Rejection> rejections)
+            throws IOException, InterruptedException {
+        // Map one byte before the range to see whether it starts a line, and enough after it
+        // to finish the last row that starts inside it
+        long mapFrom = Math.max(0, chunk.from - 1);
+        long mapTo = Math.min(size, chunk.to + DatabaseConfig.CSV_MAX_LINE_BYTES);
+        ByteBuffer buffer;
+        if (wholeFile != null) {
+            buffer = wholeFile.slice((int) mapFrom, (int) (mapTo - mapFrom));
+        } else {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapFrom, mapTo - mapFrom);
+        }
+
+        int end = (int) (chunk.to - mapFrom);
+        int pos = (int) (chunk.from - mapFrom);
+        if (chunk.from > 0 && buffer.get(pos - 1) != '\n') {
+            // The row that contains chunk.from belongs to the previous chunk
+            while (pos < buffer.limit() && buffer.get(pos) != '\n') {
+                pos++;
+            }
+            pos++;
+        }
+        if (chunk.from == 0 && hasByteOrderMark(buffer)) {
+            pos = 3;
+        }
+
+        byte[] lineBytes = new byte[256];
+        // Reused for every row this parser validates, so valid rows cost no validation garbage
+        ValidationResult validation = new ValidationResult();
+        Batch batch = new Batch(chunk.index, batchSize);
+        int localLine = 0;
+
+        while (pos < end && pos < buffer.limit()) {
+            int lineEnd = pos;
+            while (lineEnd < buffer.limit() && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int length = lineEnd - pos;
+            if (length > 0 && buffer.get(pos + length - 1) == '\r') {
+                length--;
+            }
+            int lineNumber = localLine++;
+
+            if (lineEnd == buffer.limit() && mapTo < size) {
+                rejections.add(new Rejection(chunk.index, lineNumber, "Line too long", ""));
+                chunk.rowCount++;
+                break;
+            }
+
+            if (length > lineBytes.length) {
+                lineBytes = new byte[Math.max(length, lineBytes.length * 2)];
+            }
+            buffer.get(pos, lineBytes, 0, length);
+            pos = lineEnd + 1;
+
+            String line = new String(lineBytes, 0, length, StandardCharsets.UTF_8);
+            if (line.isBlank() || (chunk.index == 0 && lineNumber == 0 && isHeader(line))) {
+                continue;
+            }
+
+            chunk.rowCount++;
+            Student student;
+            try {
+                student = parseStudent(line, validation);
+            } catch (IllegalArgumentException e) {
+                rejections.add(new Rejection(chunk.index, lineNumber, e.getMessage(), line));
+                continue;
+            }
+            if (student == null) {
+                rejections.add(new Rejection(chunk.index, lineNumber, validation.describeErrors(), line));
+                continue;
+            }
+            batch.add(student, lineNumber);
+
+            if (batch.size() == batchSize) {
+                batches.put(batch);
+                batch = new Batch(chunk.index, batchSize);
+            }
+        }
+        chunk.lineCount = localLine;
+
+        if (batch.size() > 0) {
+            batches.put(batch);
+        }
+    }
+
+    private static boolean hasByteOrderMark(ByteBuffer buffer) {
+        return buffer.limit() >= 3 && (buffer.get(0) & 0xFF) == 0xEF
+                && (buffer.get(1) & 0xFF) == 0xBB && (buffer.get(2) & 0xFF) == 0xBF;
+    }
+
+    private static boolean isHeader(String line) {
+        return line.replace(" ", "").replace("\"", "").equalsIgnoreCase(HEADER);
+    }
+
+    /**
+     * Splits and validates one row with StudentValidator, the same rules as the interactive prompts
+     * Field errors are reported through the result without building messages or exceptions
+     * @param line The row
+     * @param result Receives the validation outcome; reused across rows
+     * @return The student, or null if a field is invalid (see result.describeErrors())
+     * @throws IllegalArgumentException if the row does not have four fields or has an unterminated quote
+     */
+    static Student parseStudent(String line, ValidationResult result) {
+        List<String> fields = splitFields(line);
+        if (fields.size() != 4) {
+            throw new IllegalArgumentException("Expected 4 fields (name,email,age,course) but found " + fields.size());
+        }
+
+        String name = fields.get(0);
+        String email = fields.get(1);
+        String course = fields.get(3);
+        if (!StudentValidator.validate(name, email, fields.get(2), course, result)) {
+            return null;
+        }
+        return new Student(name, email.toLowerCase(Locale.ROOT), result.getAge(), course);
+    }
+
+    /**
+     * Splits a CSV row into trimmed fields, honouring double-quoted fields
+     */
+    static List<String> splitFields(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.toString().isBlank()) {
+                field.setLength(0);
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    /**
+     * Takes batches from the parsers and inserts them until the end marker arrives
+     */
+    private Void insertLoop(BlockingQueue<Batch> batches, ConcurrentLinkedQueue<Rejection> rejections,
+                            AtomicInteger insertedCount) throws InterruptedException {
+        while (true) {
+            Batch batch = batches.take();
+            if (batch == Batch.END) {
+                return null;
+            }
+
+            BatchInsertResult result;
+            try {
+                result = dbManager.addStudents(batch.students, batchSize);
+            } catch (RuntimeException e) {
+                // Keep draining the queue so the parsers never block on a dead inserter
+                for (int i = 0; i < batch.size(); i++) {
+                    rejections.add(new Rejection(batch.chunk, batch.lines[i], "Insert failed: " + e.getMessage(),
+                            toCsv(batch.students.get(i))));
+                }
+                continue;
+            }
+
+            boolean[] rejected = new boolean[batch.size()];
+            for (BatchInsertResult.RejectedRow row : result.getRejectedRows()) {
+                rejected[row.getIndex()] = true;
+                rejections.add(new Rejection(batch.chunk, batch.lines[row.getIndex()], row.getMessage(),
+                        toCsv(row.getStudent())));
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                Student student = batch.students.get(i);
+                if (!rejected[i] && student.getId() <= 0) {
+                    rejections.add(new Rejection(batch.chunk, batch.lines[i], "Student was not inserted",
+                            toCsv(student)));
+                }
+            }
+            insertedCount.addAndGet(result.getInsertedCount());
+        }
+    }
+
+    private static void writeErrors(Path errorFile, List<Rejection> rejected) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(errorFile, StandardCharsets.UTF_8)) {
+            writer.write("line,error,row");
+            writer.newLine();
+            for (Rejection rejection : rejected) {
+                writer.write(rejection.line + "," + quote(rejection.reason) + "," + quote(rejection.row));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static String toCsv(Student student) {
+        return quote(student.getName()) + "," + quote(student.getEmail()) + ","
+                + student.getAge() + "," + quote(student.getCourse());
+    }
+
+    private static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static IOException await(Future<?> future, IOException failure) {
+        try {
+            future.get();
+            return failure;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failure != null ? failure : new IOException("Interrupted while importing", e);
+        } catch (ExecutionException e) {
+            if (failure != null) {
+                return failure;
+            }
+            Throwable cause = e.getCause();
+            return cause instanceof IOException ? (IOException) cause : new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    private static void putUninterruptibly(BlockingQueue<Batch> queue, Batch batch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(batch);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Chunk is one byte range of the file; its counts are filled in by the parser
+     */
+    private static class Chunk {
+        final int index;
+        final long from;
+        final long to;
+        volatile int lineCount;
+        volatile int rowCount;
+
+        Chunk(int index, long from, long to) {
+            this.index = index;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    /**
+     * Batch holds validated rows from one chunk on their way to an inserter
+     */
+    private static class Batch {
+        static final Batch END = new Batch(-1, 0);
+
+        final int chunk;
+        final List<Student> students;
+        final int[] lines;
+
+        Batch(int chunk, int capacity) {
+            this.chunk = chunk;
+            this.students = new ArrayList<>(capacity);
+            this.lines = new int[capacity];
+        }
+
+        void add(Student student, int localLine) {
+            lines[students.size()] = localLine;
+            students.add(student);
+        }
+
+        int size() {
+            return students.size();
+        }
+    }
+
+    /**
+     * Rejection records a row that was not imported
+     */
+    private static class Rejection {
+        final int chunk;
+        final int localLine;
+        final String reason;
+        final String row;
+        long line;
+
+        Rejection(int chunk, int localLine, String reason, String row) {
+            this.chunk = chunk;
+            this.localLine = localLine;
+            // Driver messages can span lines; the error file keeps one row per rejection
+            this.reason = reason == null ? "" : reason.replace('\r', ' ').replace('\n', ' ');
+            this.row = row;
+        }
+    }
+
+    /**
+     * Result reports the outcome of an import
+     */
+    public static class Result {
+        private final long totalRows;
+        private final int insertedCount;
+        private final int rejectedCount;
+        private final long elapsedNanos;
+
+        Result(long totalRows, int insertedCount, int rejectedCount, long elapsedNanos) {
+            this.totalRows = totalRows;
+            this.insertedCount = insertedCount;
+            this.rejectedCount = rejectedCount;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Gets the number of non-blank data rows read
+         * @return Row count, excluding the header
+         */
+        public long getTotalRows() {
+            return totalRows;
+        }
+
+        public int getInsertedCount() {
+            return insertedCount;
+        }
+
+        public int getRejectedCount() {
+            return rejectedCount;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        /**
+         * Gets the import throughput
+         * @return Rows read per second of wall-clock time
+         */
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : totalRows * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Rows: %d, Inserted: %d, Rejected: %d in %d ms (%.0f rows/s)",
+                    totalRows, insertedCount, rejectedCount, getElapsedMillis(), getRowsPerSecond());
+        }
+    }
+}
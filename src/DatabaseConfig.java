@@ -1,14 +1,23 @@
+import java.sql.Connection;
+
 /**
  * DatabaseConfig class contains database configuration constants
  * This class centralizes database connection parameters and settings
  */
 public class DatabaseConfig {
 
+    // Storage Backend (StudentRepositoryFactory): "mysql", "embedded" (H2 file database), "local" or "memory"
+    public static final String STORAGE_BACKEND = "mysql";
+
     // Database Connection Parameters
     public static final String DB_HOST = "localhost";
     public static final String DB_PORT = "3306";
     public static final String DB_NAME = "student_db";
-    public static final String DB_URL = "jdbc:mysql://" + DB_HOST + ":" + DB_PORT + "/" + DB_NAME;
+    // Server-side prepared statements let the per-connection statement cache skip re-parsing
+    // rewriteBatchedStatements turns addStudents() batches into multi-row INSERTs
+    // useCursorFetch makes statements with a fetch size read rows in chunks instead of all at once
+    public static final String DB_URL = "jdbc:mysql://" + DB_HOST + ":" + DB_PORT + "/" + DB_NAME
+            + "?useServerPrepStmts=true&rewriteBatchedStatements=true&useCursorFetch=true";
 
     // Database Credentials (Change these according to your MySQL setup)
     public static final String USERNAME = "root";
@@ -17,9 +26,78 @@ public class DatabaseConfig {
     // JDBC Driver
     public static final String JDBC_DRIVER = "com.mysql.cj.jdbc.Driver";
 
+    // Embedded Database (H2 in MySQL compatibility mode, stored under ./data; needs the H2 jar on the classpath)
+    public static final String EMBEDDED_DB_URL = "jdbc:h2:./data/" + DB_NAME + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+    public static final String EMBEDDED_USERNAME = "sa";
+    public static final String EMBEDDED_PASSWORD = "";
+    public static final String EMBEDDED_JDBC_DRIVER = "org.h2.Driver";
+
+    // Local Store (LocalStudentStore: snapshot plus write-ahead log, no database needed)
+    public static final String LOCAL_STORE_DIR = "data/local-store";
+    public static final int LOCAL_STORE_LOG_INITIAL_BYTES = 4 * 1024 * 1024; // mapped log size, doubled as needed
+    public static final int LOCAL_STORE_COMPACT_BYTES = 16 * 1024 * 1024; // log size that triggers a new snapshot
+    public static final int LOCAL_STORE_SYNC_INTERVAL_MILLIS = 1000; // log fsync period, 0 syncs every write
+    // Continue offline with the local store when MySQL is unreachable, and replay it once MySQL is back
+    public static final boolean LOCAL_STORE_FALLBACK_ENABLED = true;
+    // Kept apart from LOCAL_STORE_DIR, so students of the standalone "local" backend are never sent to MySQL
+    public static final String OFFLINE_STORE_DIR = "data/offline-store";
+
     // Connection Pool Settings
     public static final int MAX_CONNECTIONS = 10;
     public static final int CONNECTION_TIMEOUT = 30000; // 30 seconds
+    public static final int IDLE_TIMEOUT = 600000; // 10 minutes
+    // Warn when a connection is held longer than this; 0 disables. Off by default because
+    // long streams and exports hold one connection for their whole run
+    public static final int LEAK_DETECTION_THRESHOLD = 0;
+    public static final int VALIDATION_TIMEOUT_SECONDS = 5;
+    public static final int POOL_HOUSEKEEPING_INTERVAL = 30000; // 30 seconds
+    public static final int STATEMENT_CACHE_SIZE = 25; // per connection, 0 disables
+    public static final int QUERY_TIMEOUT_SECONDS = 30; // Statement.setQueryTimeout, 0 means no limit
+
+    // Transaction Settings (DatabaseManager.inTransaction)
+    public static final int TRANSACTION_ISOLATION = Connection.TRANSACTION_REPEATABLE_READ; // InnoDB's default
+    public static final int TRANSACTION_MAX_RETRIES = 3; // extra attempts after a deadlock or serialization failure
+    public static final int TRANSACTION_RETRY_BACKOFF_MILLIS = 20; // doubled per attempt, with random jitter
+
+    // Bulk Operation Settings
+    public static final int BATCH_SIZE = 500;
+    public static final int FETCH_SIZE = 1000; // rows per round-trip when streaming
+    public static final int PAGE_SIZE = 20; // rows per page in the console listing
+    public static final int CSV_CHUNK_BYTES = 4 * 1024 * 1024; // unit of work for one CSV parser thread
+    public static final int CSV_MMAP_THRESHOLD = 16 * 1024 * 1024; // larger CSV files are memory-mapped
+    public static final int CSV_MAX_LINE_BYTES = 64 * 1024; // longer CSV rows are rejected
+    public static final int CSV_IMPORT_INSERT_THREADS = 4; // each holds one pooled connection
+
+    // Write-Behind Settings (WriteBehindBuffer)
+    public static final boolean WRITE_BEHIND_ENABLED = false; // console adds and deletes go through the buffer
+    public static final WriteBehindBuffer.FlushMode WRITE_BEHIND_FLUSH_MODE = WriteBehindBuffer.FlushMode.INTERVAL;
+    public static final int WRITE_BEHIND_FLUSH_INTERVAL_MILLIS = 100; // INTERVAL mode: oldest pending write age
+    public static final int WRITE_BEHIND_QUEUE_CAPACITY = 10000; // writers wait when this many writes are pending
+
+    // Cache Settings
+    public static final int STUDENT_CACHE_SIZE = 1000; // students kept by findStudentById
+    public static final int STUDENT_CACHE_TTL = 60000; // 1 minute, 0 means no expiry
+    // In-process trigram index for name search, loading every student onto the heap at startup.
+    // Off by default: it is not rebuilt, so it is only correct while this application is the sole writer
+    public static final boolean NAME_SEARCH_INDEX_ENABLED = false;
+
+    // Student Count Settings (DatabaseManager.getStudentCount)
+    // How long after the last COUNT(*) the count maintained by inserts and deletes is trusted; 0 runs COUNT(*) on every call
+    public static final int STUDENT_COUNT_MAX_STALENESS_MILLIS = 300000; // 5 minutes
+    public static final int STUDENT_COUNT_RECONCILE_INTERVAL_MILLIS = 60000; // background COUNT(*), 0 disables
+
+    // Statistics Settings (DatabaseManager.getStatistics)
+    public static final boolean STATISTICS_COUNTERS_ENABLED = true; // keep aggregates between calls; inserts adjust them, updates and deletes drop them
+    public static final int STATISTICS_COUNTERS_TTL = 300000; // 5 minutes, then re-queried to pick up other writers; 0 means no expiry
+
+    // Monitoring Settings
+    public static final boolean QUERY_METRICS_ENABLED = true; // per-operation latency histograms, exposed over JMX
+    public static final boolean SLOW_QUERY_LOG_ENABLED = false;
+    public static final int SLOW_QUERY_THRESHOLD_MILLIS = 200; // execute + fetch time
+    public static final String SLOW_QUERY_LOG_FILE = "logs/slow-query.log";
+    public static final int SLOW_QUERY_LOG_MAX_BYTES = 10 * 1024 * 1024; // rolled over to .1, .2, ... when reached
+    public static final int SLOW_QUERY_LOG_MAX_FILES = 5;
+    public static final int SLOW_QUERY_QUEUE_CAPACITY = 1000; // entries beyond this are dropped, never blocking callers
 
     // Table and Column Names
     public static final String TABLE_STUDENTS = "students";
@@ -28,6 +106,7 @@ public class DatabaseConfig {
     public static final String COLUMN_EMAIL = "email";
     public static final String COLUMN_AGE = "age";
     public static final String COLUMN_COURSE = "course";
+    public static final String COLUMN_VERSION = "version";
 
     // Validation Constants
     public static final int MIN_AGE = 16;
@@ -37,27 +116,71 @@ public class DatabaseConfig {
     public static final int MAX_EMAIL_LENGTH = 100;
     public static final int MAX_COURSE_LENGTH = 100;
 
-    // SQL Queries
+    // Schema (applied in order by SchemaMigrator; never edit a statement once released, add a new one)
+    public static final String TABLE_SCHEMA_VERSION = "schema_version";
+
+    // Column widths match the tables already deployed; InputValidator enforces the tighter limits
     public static final String CREATE_TABLE_SQL =
             "CREATE TABLE IF NOT EXISTS " + TABLE_STUDENTS + " (" +
                     COLUMN_ID + " INT PRIMARY KEY AUTO_INCREMENT, " +
-                    COLUMN_NAME + " VARCHAR(" + MAX_NAME_LENGTH + ") NOT NULL, " +
-                    COLUMN_EMAIL + " VARCHAR(" + MAX_EMAIL_LENGTH + ") UNIQUE NOT NULL, " +
-                    COLUMN_AGE + " INT NOT NULL CHECK (" + COLUMN_AGE + " >= " + MIN_AGE + " AND " + COLUMN_AGE + " <= " + MAX_AGE + "), " +
-                    COLUMN_COURSE + " VARCHAR(" + MAX_COURSE_LENGTH + ") NOT NULL" +
+                    COLUMN_NAME + " VARCHAR(100) NOT NULL, " +
+                    COLUMN_EMAIL + " VARCHAR(100) UNIQUE NOT NULL, " +
+                    COLUMN_AGE + " INT NOT NULL CHECK (" + COLUMN_AGE + " > 0 AND " + COLUMN_AGE + " < 150), " +
+                    COLUMN_COURSE + " VARCHAR(100) NOT NULL" +
+                    ")";
+
+    public static final String CREATE_NAME_INDEX_SQL =
+            "CREATE INDEX idx_students_name ON " + TABLE_STUDENTS + " (" + COLUMN_NAME + ")";
+
+    public static final String CREATE_COURSE_INDEX_SQL =
+            "CREATE INDEX idx_students_course ON " + TABLE_STUDENTS + " (" + COLUMN_COURSE + ")";
+
+    public static final String CREATE_AGE_INDEX_SQL =
+            "CREATE INDEX idx_students_age ON " + TABLE_STUDENTS + " (" + COLUMN_AGE + ")";
+
+    public static final String ADD_VERSION_COLUMN_SQL =
+            "ALTER TABLE " + TABLE_STUDENTS + " ADD COLUMN " + COLUMN_VERSION + " INT NOT NULL DEFAULT 0";
+
+    public static final String CREATE_SCHEMA_VERSION_TABLE_SQL =
+            "CREATE TABLE " + TABLE_SCHEMA_VERSION + " (" +
+                    "version INT PRIMARY KEY, " +
+                    "description VARCHAR(200) NOT NULL, " +
+                    "checksum INT NOT NULL, " +
+                    "installed_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                    "execution_ms INT NOT NULL" +
                     ")";
 
+    public static final String SELECT_SCHEMA_VERSIONS_SQL =
+            "SELECT version, checksum FROM " + TABLE_SCHEMA_VERSION + " ORDER BY version";
+
+    public static final String INSERT_SCHEMA_VERSION_SQL =
+            "INSERT INTO " + TABLE_SCHEMA_VERSION + " (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)";
+
+    // SQL Queries
     public static final String INSERT_STUDENT_SQL =
             "INSERT INTO " + TABLE_STUDENTS + " (" + COLUMN_NAME + ", " + COLUMN_EMAIL + ", " + COLUMN_AGE + ", " + COLUMN_COURSE + ") VALUES (?, ?, ?, ?)";
 
     public static final String SELECT_ALL_STUDENTS_SQL =
             "SELECT * FROM " + TABLE_STUDENTS + " ORDER BY " + COLUMN_ID;
 
+    public static final String SELECT_SNAPSHOT_COLUMNS_SQL =
+            "SELECT " + COLUMN_ID + ", " + COLUMN_AGE + ", " + COLUMN_COURSE + " FROM " + TABLE_STUDENTS + " ORDER BY " + COLUMN_ID;
+
+    public static final String SELECT_STUDENTS_AFTER_ID_SQL =
+            "SELECT * FROM " + TABLE_STUDENTS + " WHERE " + COLUMN_ID + " > ? ORDER BY " + COLUMN_ID + " LIMIT ?";
+
     public static final String SELECT_STUDENT_BY_ID_SQL =
             "SELECT * FROM " + TABLE_STUDENTS + " WHERE " + COLUMN_ID + " = ?";
 
+    public static final String SELECT_STUDENT_BY_ID_FOR_UPDATE_SQL =
+            SELECT_STUDENT_BY_ID_SQL + " FOR UPDATE";
+
     public static final String UPDATE_STUDENT_SQL =
-            "UPDATE " + TABLE_STUDENTS + " SET " + COLUMN_NAME + " = ?, " + COLUMN_EMAIL + " = ?, " + COLUMN_AGE + " = ?, " + COLUMN_COURSE + " = ? WHERE " + COLUMN_ID + " = ?";
+            "UPDATE " + TABLE_STUDENTS + " SET " + COLUMN_NAME + " = ?, " + COLUMN_EMAIL + " = ?, " + COLUMN_AGE + " = ?, " + COLUMN_COURSE + " = ?, "
+                    + COLUMN_VERSION + " = " + COLUMN_VERSION + " + 1 WHERE " + COLUMN_ID + " = ?";
+
+    public static final String SELECT_STUDENT_VERSION_SQL =
+            "SELECT " + COLUMN_VERSION + " FROM " + TABLE_STUDENTS + " WHERE " + COLUMN_ID + " = ?";
 
     public static final String DELETE_STUDENT_SQL =
             "DELETE FROM " + TABLE_STUDENTS + " WHERE " + COLUMN_ID + " = ?";
@@ -68,6 +191,16 @@ public class DatabaseConfig {
     public static final String COUNT_STUDENTS_SQL =
             "SELECT COUNT(*) FROM " + TABLE_STUDENTS;
 
+    // Aggregates computed by the database; the course and age indexes cover the GROUP BY queries
+    public static final String SUM_STUDENT_AGES_SQL =
+            "SELECT COUNT(*), COALESCE(SUM(" + COLUMN_AGE + "), 0) FROM " + TABLE_STUDENTS;
+
+    public static final String COUNT_STUDENTS_PER_COURSE_SQL =
+            "SELECT " + COLUMN_COURSE + ", COUNT(*) FROM " + TABLE_STUDENTS + " GROUP BY " + COLUMN_COURSE;
+
+    public static final String COUNT_STUDENTS_PER_AGE_SQL =
+            "SELECT " + COLUMN_AGE + ", COUNT(*) FROM " + TABLE_STUDENTS + " GROUP BY " + COLUMN_AGE;
+
     // Application Settings
     public static final String APP_NAME = "Student Database Management System";
     public static final String APP_VERSION = "1.0";
@@ -83,7 +216,9 @@ public class DatabaseConfig {
      * @return Complete database URL string
      */
     public static String getFullDatabaseUrl() {
-        return DB_URL + "?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC";
+        // DB_URL already carries a query string, so the extra parameters are joined with '&'
+        String separator = DB_URL.indexOf('?') < 0 ? "?" : "&";
+        return DB_URL + separator + "useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC";
     }
 
     /**
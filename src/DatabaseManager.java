@@ -1,83 +1,147 @@
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * DatabaseManager class handles all database operations
- * This class manages the connection to MySQL database and provides
- * CRUD operations for Student entities
+ * This class manages a pool of connections to a JDBC database (MySQL, or an
+ * embedded H2 database in MySQL mode) and provides CRUD operations for Student entities
  */
-public class DatabaseManager {
-    // Database connection parameters
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/student_db";
-    private static final String USERNAME = "root";
-    private static final String PASSWORD = "root"; // Change this to your MySQL password
+public class DatabaseManager implements StudentRepository {
+    // MySQL error code for a duplicate entry on a unique key
+    public static final int DUPLICATE_ENTRY_ERROR_CODE = 1062;
 
-    private Connection connection;
+    // MySQL error code and standard SQLSTATE for a transaction rolled back by a deadlock
+    // or serialization failure; inTransaction retries these
+    public static final int DEADLOCK_ERROR_CODE = 1213;
+    public static final String SERIALIZATION_FAILURE_SQL_STATE = "40001";
+    // Lock wait timeout; rolls back the whole transaction when innodb_rollback_on_timeout is on
+    public static final int LOCK_WAIT_TIMEOUT_ERROR_CODE = 1205;
+
+    // Version-checked UPDATE for every combination of changed columns, indexed by Student.FIELD_* flags
+    private static final String[] PARTIAL_UPDATE_SQL = buildPartialUpdateSql();
+
+    private ConnectionPool pool;
+
+    // Read-through cache for findStudentById, kept consistent by the write paths
+    private final StudentCache studentCache =
+            new StudentCache(DatabaseConfig.STUDENT_CACHE_SIZE, DatabaseConfig.STUDENT_CACHE_TTL);
+
+    // In-process trigram index used by searchStudentsByName, or null when disabled
+    private volatile NameSearchIndex nameIndex;
+
+    // Aggregates adjusted by inserts and dropped by updates and deletes,
+    // or null when DatabaseConfig.STATISTICS_COUNTERS_ENABLED is off
+    private final StatisticsCounters statisticsCounters = DatabaseConfig.STATISTICS_COUNTERS_ENABLED
+            ? new StatisticsCounters(DatabaseConfig.STATISTICS_COUNTERS_TTL) : null;
+
+    // Count maintained by the insert and delete paths, or null when getStudentCount always runs COUNT(*)
+    private final StudentCountTracker countTracker = DatabaseConfig.STUDENT_COUNT_MAX_STALENESS_MILLIS > 0
+            ? new StudentCountTracker(DatabaseConfig.STUDENT_COUNT_MAX_STALENESS_MILLIS) : null;
+
+    // Runs the background COUNT(*) that corrects the maintained count; started by the first getStudentCount()
+    private ScheduledExecutorService countReconciler;
 
     /**
-     * Constructor - establishes database connection and creates table
+     * Constructor - connects to the MySQL database configured in DatabaseConfig,
+     * verifies connectivity and migrates the schema
      */
     public DatabaseManager() {
+        this(DatabaseConfig.JDBC_DRIVER, DatabaseConfig.DB_URL, DatabaseConfig.USERNAME, DatabaseConfig.PASSWORD);
+    }
+
+    /**
+     * Constructor for an explicit driver and JDBC URL, such as the embedded H2 database
+     * @param driverClass JDBC driver class to load
+     * @param url JDBC URL
+     * @param username Database user
+     * @param password Database password
+     */
+    public DatabaseManager(String driverClass, String url, String username, String password) {
         try {
-            // Load MySQL JDBC Driver
-            Class.forName("com.mysql.cj.jdbc.Driver");
+            Class.forName(driverClass);
+        } catch (ClassNotFoundException e) {
+            System.out.println("JDBC Driver not found: " + e.getMessage());
+            return;
+        }
+
+        connect(url, username, password);
+    }
+
+    /**
+     * Constructor for an explicit JDBC URL, such as an in-memory H2 database in MySQL mode
+     * The driver for the URL must be on the classpath (JDBC 4 drivers register themselves)
+     * @param url JDBC URL
+     * @param username Database user
+     * @param password Database password
+     */
+    public DatabaseManager(String url, String username, String password) {
+        connect(url, username, password);
+    }
 
-            // Establish connection
-            connection = DriverManager.getConnection(DB_URL, USERNAME, PASSWORD);
+    /**
+     * Creates the connection pool, opens a first connection to verify settings and migrates the schema
+     */
+    private void connect(String url, String username, String password) {
+        pool = new ConnectionPool(url, username, password);
+        try (PooledConnection pc = pool.borrow("connect")) {
             System.out.println("Database connected successfully!");
 
-            // Create table if it doesn't exist
-            createTableIfNotExists();
+            // Create or upgrade the schema
+            migrateSchema(pc.getConnection());
 
-        } catch (ClassNotFoundException e) {
-            System.out.println("MySQL JDBC Driver not found: " + e.getMessage());
         } catch (SQLException e) {
             System.out.println("Database connection failed: " + e.getMessage());
+            pool.close();
+            pool = null;
+            return;
+        }
+
+        if (DatabaseConfig.NAME_SEARCH_INDEX_ENABLED) {
+            buildNameIndex();
         }
     }
 
     /**
-     * Creates the students table if it doesn't exist
+     * Applies any schema migrations the database has not recorded yet
      */
-    private void createTableIfNotExists() {
-        String createTableSQL = """
-            CREATE TABLE IF NOT EXISTS students (
-                id INT PRIMARY KEY AUTO_INCREMENT,
-                name VARCHAR(100) NOT NULL,
-                email VARCHAR(100) UNIQUE NOT NULL,
-                age INT NOT NULL CHECK (age > 0 AND age < 150),
-                course VARCHAR(100) NOT NULL
-            )
-        """;
-
-        try (Statement stmt = connection.createStatement()) {
-            stmt.executeUpdate(createTableSQL);
-            System.out.println("Students table is ready!");
+    private void migrateSchema(Connection connection) {
+        try {
+            int applied = SchemaMigrator.migrate(connection);
+            System.out.println(applied > 0
+                    ? "Students table is ready! (schema upgraded to version " + SchemaMigrator.getLatestVersion() + ")"
+                    : "Students table is ready!");
         } catch (SQLException e) {
-            System.out.println("Error creating table: " + e.getMessage());
+            System.out.println("Error migrating schema: " + e.getMessage());
         }
     }
 
     /**
      * Adds a new student to the database
-     * @param student The student object to add
+     * @param student The student object to add; its generated ID is set on success
      * @return true if student was added successfully, false otherwise
      */
+    @Override
     public boolean addStudent(Student student) {
-        String sql = "INSERT INTO students (name, email, age, course) VALUES (?, ?, ?, ?)";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, student.getName());
-            pstmt.setString(2, student.getEmail());
-            pstmt.setInt(3, student.getAge());
-            pstmt.setString(4, student.getCourse());
-
-            int rowsAffected = pstmt.executeUpdate();
+        try (PooledConnection pc = pool.borrow("addStudent")) {
+            int rowsAffected = insertStudent(pc, student);
+            if (rowsAffected > 0 && student.getId() > 0) {
+                studentCache.put(student);
+                indexStudent(student);
+                countInserted(student);
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
-            if (e.getErrorCode() == 1062) { // Duplicate entry error code
+            if (e.getErrorCode() == DUPLICATE_ENTRY_ERROR_CODE) {
                 System.out.println("Error: Email already exists in database!");
             } else {
                 System.out.println("Error adding student: " + e.getMessage());
@@ -86,26 +150,183 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Adds many students using JDBC batches of DatabaseConfig.BATCH_SIZE rows
+     * @param students The students to add; generated IDs are set on each inserted student
+     * @return Result with the inserted count and any rejected rows
+     */
+    @Override
+    public BatchInsertResult addStudents(Iterable<Student> students) {
+        return addStudents(students, DatabaseConfig.BATCH_SIZE);
+    }
+
+    /**
+     * Adds many students using JDBC batches, committing one transaction per chunk
+     * Rows rejected by the database (such as duplicate emails) are reported
+     * individually and do not prevent the rest of their chunk from being committed.
+     * A chunk rolled back by a deadlock is run again; if it still fails, adding stops
+     * there and the rows of that chunk and later chunks keep an ID of 0
+     * @param students The students to add; generated IDs are set on each inserted student
+     * @param batchSize Number of rows per batch and transaction
+     * @return Result with the inserted count and any rejected rows
+     */
+    public BatchInsertResult addStudents(Iterable<Student> students, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+
+        BatchInsertResult result = new BatchInsertResult();
+        List<Student> chunk = new ArrayList<>(Math.min(batchSize, 1024));
+        int chunkStart = 0;
+
+        try (PooledConnection pc = pool.borrow("addStudents")) {
+            Connection connection = pc.getConnection();
+            connection.setAutoCommit(false);
+            PreparedStatement pstmt = pc.prepareStatement(DatabaseConfig.INSERT_STUDENT_SQL,
+                    Statement.RETURN_GENERATED_KEYS);
+
+            for (Student student : students) {
+                chunk.add(student);
+                if (chunk.size() == batchSize) {
+                    insertChunk(connection, pstmt, chunk, chunkStart, result);
+                    chunkStart += chunk.size();
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insertChunk(connection, pstmt, chunk, chunkStart, result);
+            }
+
+            connection.setAutoCommit(true);
+
+        } catch (SQLException e) {
+            System.out.println("Error adding students: " + e.getMessage());
+        }
+
+        return result;
+    }
+
+    /**
+     * Inserts one chunk as a single batch and transaction, falling back to
+     * row-by-row inserts when the batch fails so bad rows can be isolated
+     */
+    private void insertChunk(Connection connection, PreparedStatement pstmt, List<Student> chunk,
+                             int chunkStart, BatchInsertResult result) throws SQLException {
+        try {
+            for (Student student : chunk) {
+                bindStudent(pstmt, student);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+
+            int[] ids = new int[chunk.size()];
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                for (int i = 0; i < ids.length && keys.next(); i++) {
+                    ids[i] = keys.getInt(1);
+                }
+            }
+            connection.commit();
+            // IDs are only set once committed, so callers can tell inserted rows by getId() > 0
+            for (int i = 0; i < ids.length; i++) {
+                Student student = chunk.get(i);
+                student.setId(ids[i]);
+                result.recordInserted();
+                indexStudent(student);
+                countInserted(student);
+            }
+
+        } catch (BatchUpdateException e) {
+            connection.rollback();
+            pstmt.clearBatch();
+            insertChunkRowByRow(connection, pstmt, chunk, chunkStart, result);
+        }
+    }
+
+    private void insertChunkRowByRow(Connection connection, PreparedStatement pstmt, List<Student> chunk,
+                                     int chunkStart, BatchInsertResult result) throws SQLException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                insertRowsOnce(connection, pstmt, chunk, chunkStart, result);
+                return;
+            } catch (SQLException e) {
+                connection.rollback();
+                if (!isRetryable(e) || attempt >= DatabaseConfig.TRANSACTION_MAX_RETRIES) {
+                    throw e;
+                }
+                backOff(attempt, e);
+            }
+        }
+    }
+
+    /**
+     * Inserts the rows of a chunk one at a time in a single transaction, skipping rows
+     * the database rejects on their own. Nothing is recorded in the result until the
+     * commit succeeds, so a deadlock can run the whole chunk again
+     * @throws SQLException if a failure rolled back the transaction, or the commit failed
+     */
+    private void insertRowsOnce(Connection connection, PreparedStatement pstmt, List<Student> chunk,
+                                int chunkStart, BatchInsertResult result) throws SQLException {
+        List<Student> inserted = new ArrayList<>(chunk.size());
+        int[] ids = new int[chunk.size()];
+        List<SQLException> errors = new ArrayList<>();
+        int[] errorRows = new int[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            Student student = chunk.get(i);
+            try {
+                bindStudent(pstmt, student);
+                pstmt.executeUpdate();
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        ids[inserted.size()] = keys.getInt(1);
+                    }
+                }
+                inserted.add(student);
+            } catch (SQLException e) {
+                // A deadlock or lock wait timeout takes the rows inserted so far with it
+                if (rollsBackTransaction(e)) {
+                    throw e;
+                }
+                // Any other failed statement only rolls back itself
+                errorRows[errors.size()] = i;
+                errors.add(e);
+            }
+        }
+        connection.commit();
+
+        for (int i = 0; i < errors.size(); i++) {
+            SQLException e = errors.get(i);
+            result.recordRejected(chunkStart + errorRows[i], chunk.get(errorRows[i]), e.getErrorCode(),
+                    e.getErrorCode() == DUPLICATE_ENTRY_ERROR_CODE ? "Email already exists" : e.getMessage());
+        }
+        for (int i = 0; i < inserted.size(); i++) {
+            Student student = inserted.get(i);
+            student.setId(ids[i]);
+            result.recordInserted();
+            indexStudent(student);
+            countInserted(student);
+        }
+    }
+
+    static void bindStudent(PreparedStatement pstmt, Student student) throws SQLException {
+        pstmt.setString(1, student.getName());
+        pstmt.setString(2, student.getEmail());
+        pstmt.setInt(3, student.getAge());
+        pstmt.setString(4, student.getCourse());
+    }
+
     /**
      * Retrieves all students from the database
      * @return List of all students
      */
+    @Override
     public List<Student> getAllStudents() {
         List<Student> students = new ArrayList<>();
-        String sql = "SELECT * FROM students ORDER BY id";
 
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (PooledConnection pc = pool.borrow("getAllStudents");
+             ResultSet rs = pc.prepareStatement(DatabaseConfig.SELECT_ALL_STUDENTS_SQL).executeQuery()) {
 
             while (rs.next()) {
-                Student student = new Student(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("email"),
-                        rs.getInt("age"),
-                        rs.getString("course")
-                );
-                students.add(student);
+                students.add(readStudent(rs));
             }
 
         } catch (SQLException e) {
@@ -115,30 +336,126 @@ public class DatabaseManager {
         return students;
     }
 
+    /**
+     * Streams all students ordered by id to the given action, one row at a time
+     * Rows are read through a forward-only, read-only cursor with a fetch size of
+     * DatabaseConfig.FETCH_SIZE, so memory use does not grow with the table size.
+     * The action runs while a pooled connection is held and should not block for long
+     * @param action Callback invoked for each student as it is read
+     * @return Number of students passed to the action
+     */
+    @Override
+    public int forEachStudent(Consumer<? super Student> action) {
+        int count = 0;
+
+        try (PooledConnection pc = pool.borrow("forEachStudent")) {
+            PreparedStatement pstmt = pc.prepareStatement(DatabaseConfig.SELECT_ALL_STUDENTS_SQL);
+            pstmt.setFetchSize(DatabaseConfig.FETCH_SIZE);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(readStudent(rs));
+                    count++;
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error retrieving students: " + e.getMessage());
+        }
+
+        return count;
+    }
+
+    /**
+     * Builds a read-only columnar snapshot of the students table for analytics queries
+     * Only id, age and course are read, in one streaming pass over the result set
+     * @return The snapshot, or null if the table could not be read
+     */
+    public StudentSnapshot createSnapshot() {
+        try (PooledConnection pc = pool.borrow("createSnapshot")) {
+            PreparedStatement pstmt = pc.prepareStatement(DatabaseConfig.SELECT_SNAPSHOT_COLUMNS_SQL);
+            pstmt.setFetchSize(DatabaseConfig.FETCH_SIZE);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return StudentSnapshot.fromResultSet(rs);
+            }
+        } catch (SQLException e) {
+            System.out.println("Error creating student snapshot: " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Displays all students in a formatted way
+     * Rows are printed as they are read from the database
      */
     public void viewAllStudents() {
-        List<Student> students = getAllStudents();
-
         System.out.println("\n==================== STUDENT LIST ====================");
-        if (students.isEmpty()) {
+
+        // The column header is printed with the first row so an empty table only shows the message
+        boolean[] headerPrinted = {false};
+        int count = forEachStudent(student -> {
+            if (!headerPrinted[0]) {
+                printStudentTableHeader();
+                headerPrinted[0] = true;
+            }
+            printStudentTableRow(student);
+        });
+
+        if (count == 0) {
             System.out.println("No students found in database.");
             return;
         }
+        System.out.println("=======================================================");
+    }
 
+    /**
+     * Prints the column header used by the student table
+     */
+    public static void printStudentTableHeader() {
         System.out.printf("%-5s %-20s %-30s %-5s %-20s%n", "ID", "NAME", "EMAIL", "AGE", "COURSE");
         System.out.println("-----------------------------------------------------------------------");
+    }
 
-        for (Student student : students) {
-            System.out.printf("%-5d %-20s %-30s %-5d %-20s%n",
-                    student.getId(),
-                    student.getName(),
-                    student.getEmail(),
-                    student.getAge(),
-                    student.getCourse());
+    /**
+     * Prints one student as a row of the student table
+     * @param student The student to print
+     */
+    public static void printStudentTableRow(Student student) {
+        System.out.printf("%-5d %-20s %-30s %-5d %-20s%n",
+                student.getId(),
+                student.getName(),
+                student.getEmail(),
+                student.getAge(),
+                student.getCourse());
+    }
+
+    /**
+     * Retrieves one page of students ordered by id, starting after the given id
+     * Uses keyset pagination (WHERE id > ? ... LIMIT ?) so every page costs the
+     * same index range scan no matter how deep into the table it is
+     * @param lastId The id of the last student on the previous page (0 for the first page)
+     * @param pageSize Maximum number of students to return
+     * @return Up to pageSize students with id greater than lastId
+     */
+    @Override
+    public List<Student> getStudentsAfter(int lastId, int pageSize) {
+        List<Student> students = new ArrayList<>();
+
+        try (PooledConnection pc = pool.borrow("getStudentsAfter")) {
+            PreparedStatement pstmt = pc.prepareStatement(DatabaseConfig.SELECT_STUDENTS_AFTER_ID_SQL);
+            pstmt.setInt(1, lastId);
+            pstmt.setInt(2, pageSize);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    students.add(readStudent(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error retrieving students: " + e.getMessage());
         }
-        System.out.println("=======================================================");
+
+        return students;
     }
 
     /**
@@ -146,23 +463,20 @@ public class DatabaseManager {
      * @param id The student ID to search for
      * @return Student object if found, null otherwise
      */
+    @Override
     public Student findStudentById(int id) {
-        String sql = "SELECT * FROM students WHERE id = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, id);
+        Student cached = studentCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return new Student(
-                            rs.getInt("id"),
-                            rs.getString("name"),
-                            rs.getString("email"),
-                            rs.getInt("age"),
-                            rs.getString("course")
-                    );
-                }
+        long loadStamp = studentCache.beginLoad();
+        try (PooledConnection pc = pool.borrow("findStudentById")) {
+            Student student = selectStudentById(pc, id);
+            if (student != null) {
+                studentCache.putIfFresh(student, loadStamp);
             }
+            return student;
         } catch (SQLException e) {
             System.out.println("Error finding student: " + e.getMessage());
         }
@@ -175,21 +489,28 @@ public class DatabaseManager {
      * @param student The updated student information
      * @return true if update was successful, false otherwise
      */
+    @Override
     public boolean updateStudent(int id, Student student) {
-        String sql = "UPDATE students SET name = ?, email = ?, age = ?, course = ? WHERE id = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, student.getName());
-            pstmt.setString(2, student.getEmail());
-            pstmt.setInt(3, student.getAge());
-            pstmt.setString(4, student.getCourse());
-            pstmt.setInt(5, id);
-
-            int rowsAffected = pstmt.executeUpdate();
+        try (PooledConnection pc = pool.borrow("updateStudent")) {
+            int rowsAffected = updateStudentRow(pc, id, student);
+            if (rowsAffected > 0) {
+                studentCache.invalidate(id);
+                NameSearchIndex index = nameIndex;
+                if (index != null) {
+                    // The UPDATE advanced the row's version, which the caller's copy does not know
+                    Student indexed = selectStudentById(pc, id);
+                    if (indexed == null) {
+                        index.remove(id);
+                    } else {
+                        index.put(indexed);
+                    }
+                }
+                invalidateStatistics();
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
-            if (e.getErrorCode() == 1062) { // Duplicate entry error code
+            if (e.getErrorCode() == DUPLICATE_ENTRY_ERROR_CODE) {
                 System.out.println("Error: Email already exists in database!");
             } else {
                 System.out.println("Error updating student: " + e.getMessage());
@@ -198,18 +519,68 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Saves the fields changed through setters, only if nobody has changed the student since it was read
+     * The UPDATE writes just the changed columns and matches both the ID and the version the
+     * caller read, so concurrent editors cannot silently overwrite each other and no row lock
+     * is held between reading the student and saving it
+     * @param student A student read from the database and then modified through its setters;
+     *                on success its version is advanced and its changed fields are cleared
+     * @return UPDATED, UNCHANGED without contacting the database if no field was changed,
+     *         CONFLICT if the row was changed by someone else, NOT_FOUND if it was deleted,
+     *         or FAILED on a database error
+     */
+    @Override
+    public UpdateResult updateStudent(Student student) {
+        if (!student.isDirty()) {
+            return UpdateResult.UNCHANGED;
+        }
+
+        try (PooledConnection pc = pool.borrow("updateStudentIfVersion")) {
+            // Name and email changes leave the statistics as they are
+            boolean counted = (student.getDirtyFields() & (Student.FIELD_AGE | Student.FIELD_COURSE)) != 0;
+            UpdateResult result = updateStudentIfVersion(pc, student);
+            if (result == UpdateResult.UPDATED) {
+                studentCache.invalidate(student.getId());
+                indexStudent(student);
+                if (counted) {
+                    invalidateStatistics();
+                }
+            } else if (result == UpdateResult.CONFLICT || result == UpdateResult.NOT_FOUND) {
+                // Someone else changed or deleted the row, so a cached copy is stale and
+                // a reload would only conflict again
+                studentCache.invalidate(student.getId());
+            }
+            return result;
+
+        } catch (SQLException e) {
+            if (e.getErrorCode() == DUPLICATE_ENTRY_ERROR_CODE) {
+                System.out.println("Error: Email already exists in database!");
+            } else {
+                System.out.println("Error updating student: " + e.getMessage());
+            }
+            return UpdateResult.FAILED;
+        }
+    }
+
     /**
      * Deletes a student from the database
      * @param id The ID of the student to delete
      * @return true if deletion was successful, false otherwise
      */
+    @Override
     public boolean deleteStudent(int id) {
-        String sql = "DELETE FROM students WHERE id = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, id);
-
-            int rowsAffected = pstmt.executeUpdate();
+        try (PooledConnection pc = pool.borrow("deleteStudent")) {
+            int rowsAffected = deleteStudentRow(pc, id);
+            studentCache.invalidate(id);
+            NameSearchIndex index = nameIndex;
+            if (index != null) {
+                index.remove(id);
+            }
+            if (rowsAffected > 0) {
+                studentsDeleted(rowsAffected);
+                invalidateStatistics();
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -220,48 +591,149 @@ public class DatabaseManager {
 
     /**
      * Searches students by name (partial match)
+     * Uses the in-process name index when it is enabled, falling back to a
+     * LIKE query for patterns containing SQL wildcards
      * @param namePattern The name pattern to search for
      * @return List of students matching the pattern
      */
+    @Override
     public List<Student> searchStudentsByName(String namePattern) {
-        List<Student> students = new ArrayList<>();
-        String sql = "SELECT * FROM students WHERE name LIKE ? ORDER BY name";
+        NameSearchIndex index = nameIndex;
+        if (index != null && !containsLikeWildcard(namePattern)) {
+            return index.search(namePattern);
+        }
+
+        try (PooledConnection pc = pool.borrow("searchStudentsByName")) {
+            return selectStudentsByName(pc, namePattern);
+        } catch (SQLException e) {
+            System.out.println("Error searching students: " + e.getMessage());
+        }
+
+        return new ArrayList<>();
+    }
+
+    private static boolean containsLikeWildcard(String pattern) {
+        return pattern.indexOf('%') >= 0 || pattern.indexOf('_') >= 0 || pattern.indexOf('\\') >= 0;
+    }
+
+    /**
+     * Builds the in-process name index from the students table and enables it
+     * Should be called while no other writes are in flight, such as at startup
+     * @return true if the index was built, false if the table could not be read
+     */
+    public boolean rebuildNameIndex() {
+        return buildNameIndex();
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, "%" + namePattern + "%");
+    private boolean buildNameIndex() {
+        NameSearchIndex index = new NameSearchIndex();
+
+        try (PooledConnection pc = pool.borrow("rebuildNameIndex")) {
+            PreparedStatement pstmt = pc.prepareStatement(DatabaseConfig.SELECT_ALL_STUDENTS_SQL);
+            pstmt.setFetchSize(DatabaseConfig.FETCH_SIZE);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    Student student = new Student(
-                            rs.getInt("id"),
-                            rs.getString("name"),
-                            rs.getString("email"),
-                            rs.getInt("age"),
-                            rs.getString("course")
-                    );
-                    students.add(student);
+                    index.put(readStudent(rs));
                 }
             }
+            nameIndex = index;
+            return true;
+
         } catch (SQLException e) {
-            System.out.println("Error searching students: " + e.getMessage());
+            System.out.println("Error building name index, using SQL search: " + e.getMessage());
+            nameIndex = null;
+            return false;
         }
+    }
 
-        return students;
+    /**
+     * Checks if searchStudentsByName is served by the in-process name index
+     * @return true if the index is enabled, false otherwise
+     */
+    public boolean isNameIndexEnabled() {
+        return nameIndex != null;
+    }
+
+    private void indexStudent(Student student) {
+        NameSearchIndex index = nameIndex;
+        if (index != null) {
+            index.put(student);
+        }
+    }
+
+    /**
+     * Adds students inserted through the connection-level operations to the cache and
+     * name index, once the surrounding transaction has committed
+     * @param students The inserted students, with their generated IDs
+     */
+    void studentsInserted(Collection<Student> students) {
+        for (Student student : students) {
+            studentCache.put(student);
+            indexStudent(student);
+            countInserted(student);
+        }
+    }
+
+    /**
+     * Refreshes the cache and name index after students were changed through the
+     * connection-level operations, once the surrounding transaction has committed
+     * @param ids IDs of the students that were updated or deleted
+     */
+    void studentsChanged(Collection<Integer> ids) {
+        for (int id : ids) {
+            studentCache.invalidate(id);
+        }
+        if (!ids.isEmpty()) {
+            invalidateStatistics();
+        }
+
+        NameSearchIndex index = nameIndex;
+        if (index == null || ids.isEmpty()) {
+            return;
+        }
+
+        try (PooledConnection pc = pool.borrow("studentsChanged")) {
+            for (int id : ids) {
+                Student student = selectStudentById(pc, id);
+                if (student == null) {
+                    index.remove(id);
+                } else {
+                    index.put(student);
+                }
+            }
+        } catch (SQLException e) {
+            // The index can no longer be trusted, fall back to SQL search
+            System.out.println("Error refreshing name index, using SQL search: " + e.getMessage());
+            nameIndex = null;
+        }
     }
 
     /**
      * Gets the total count of students in database
+     * Served from the maintained count while it has been reconciled within
+     * DatabaseConfig.STUDENT_COUNT_MAX_STALENESS_MILLIS; otherwise runs SELECT COUNT(*)
      * @return Number of students
      */
+    @Override
     public int getStudentCount() {
-        String sql = "SELECT COUNT(*) FROM students";
-
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        StudentCountTracker tracker = countTracker;
+        if (tracker != null) {
+            int maintained = tracker.get();
+            if (maintained >= 0) {
+                return maintained;
+            }
+        }
 
-            if (rs.next()) {
-                return rs.getInt(1);
+        long modificationCount = tracker == null ? 0 : tracker.getModificationCount();
+        try (PooledConnection pc = pool.borrow("getStudentCount")) {
+            int count = selectStudentCount(pc);
+            if (tracker != null) {
+                tracker.reconcile(count, modificationCount);
+                startCountReconciler();
             }
+            return count;
+
         } catch (SQLException e) {
             System.out.println("Error getting student count: " + e.getMessage());
         }
@@ -269,29 +741,472 @@ public class DatabaseManager {
         return 0;
     }
 
+    private synchronized void startCountReconciler() {
+        if (countReconciler != null || DatabaseConfig.STUDENT_COUNT_RECONCILE_INTERVAL_MILLIS <= 0 || pool.isClosed()) {
+            return;
+        }
+        countReconciler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "student-count-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = DatabaseConfig.STUDENT_COUNT_RECONCILE_INTERVAL_MILLIS;
+        countReconciler.scheduleAtFixedRate(this::reconcileStudentCount, period, period, TimeUnit.MILLISECONDS);
+    }
+
     /**
-     * Checks if database connection is active
-     * @return true if connection is active, false otherwise
+     * Replaces the maintained count with COUNT(*), correcting drift caused by other applications
      */
-    public boolean isConnectionActive() {
-        try {
-            return connection != null && !connection.isClosed();
+    private void reconcileStudentCount() {
+        long modificationCount = countTracker.getModificationCount();
+        try (PooledConnection pc = pool.borrow("reconcileStudentCount")) {
+            countTracker.reconcile(selectStudentCount(pc), modificationCount);
         } catch (SQLException e) {
-            return false;
+            System.out.println("Error reconciling student count: " + e.getMessage());
         }
     }
 
     /**
-     * Closes the database connection
+     * Gets aggregate statistics (count, age range and average, students per course and per age)
+     * The figures come from the statistics counters while they are loaded; otherwise the
+     * database computes them with GROUP BY queries and the counters are loaded from the result
+     * @return The statistics, or null if the queries fail
      */
-    public void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Database connection closed successfully.");
+    @Override
+    public StudentStatistics getStatistics() {
+        StatisticsCounters counters = statisticsCounters;
+        if (counters != null) {
+            StudentStatistics cached = counters.get();
+            if (cached != null) {
+                return cached;
             }
+        }
+
+        long modificationCount = counters == null ? 0 : counters.getModificationCount();
+        try (PooledConnection pc = pool.borrow("getStatistics")) {
+            StudentStatistics statistics = selectStatistics(pc);
+            if (counters != null) {
+                counters.load(statistics, modificationCount);
+            }
+            return statistics;
+
         } catch (SQLException e) {
-            System.out.println("Error closing connection: " + e.getMessage());
+            System.out.println("Error computing statistics: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void countInserted(Student student) {
+        StudentCountTracker tracker = countTracker;
+        if (tracker != null) {
+            tracker.added(1);
+        }
+        StatisticsCounters counters = statisticsCounters;
+        if (counters != null) {
+            counters.added(student.getAge(), student.getCourse());
+        }
+    }
+
+    /**
+     * Takes students deleted through the connection-level operations off the maintained
+     * count, once the surrounding transaction has committed
+     * @param rows Number of deleted students
+     */
+    void studentsDeleted(int rows) {
+        StudentCountTracker tracker = countTracker;
+        if (tracker != null && rows > 0) {
+            tracker.removed(rows);
+        }
+    }
+
+    /**
+     * Drops the statistics counters after an update or delete, so the next getStatistics() queries again
+     * Adjusting them would need the old row, read in the same transaction as the write
+     * (SELECT ... FOR UPDATE) to be exact under concurrent writers; that extra round trip
+     * on every write costs more than an occasional re-query
+     */
+    private void invalidateStatistics() {
+        StatisticsCounters counters = statisticsCounters;
+        if (counters != null) {
+            counters.invalidate();
+        }
+    }
+
+    /**
+     * Runs a unit of work in one transaction at DatabaseConfig.TRANSACTION_ISOLATION
+     * @param work The operations to run; may be run again after a deadlock
+     * @return The value returned by the work
+     * @throws SQLException if the work fails, or still deadlocks after DatabaseConfig.TRANSACTION_MAX_RETRIES retries
+     */
+    public <T> T inTransaction(Transaction.Work<T> work) throws SQLException {
+        return inTransaction(DatabaseConfig.TRANSACTION_ISOLATION, work);
+    }
+
+    /**
+     * Runs a unit of work in one transaction on one connection
+     * Everything the work does is committed together when it returns, or rolled back
+     * if it throws. A transaction rolled back by a deadlock or serialization failure is
+     * retried from the start with exponential backoff. The cache and name index are
+     * updated only after the commit
+     * @param isolation A java.sql.Connection TRANSACTION_* level
+     * @param work The operations to run; may be run again after a deadlock
+     * @return The value returned by the work
+     * @throws SQLException if the work fails, or still deadlocks after DatabaseConfig.TRANSACTION_MAX_RETRIES retries
+     */
+    public <T> T inTransaction(int isolation, Transaction.Work<T> work) throws SQLException {
+        if (pool == null) {
+            throw new SQLException("Database is not connected");
+        }
+
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return runTransaction(isolation, work);
+            } catch (SQLException e) {
+                if (!isRetryable(e) || attempt >= DatabaseConfig.TRANSACTION_MAX_RETRIES) {
+                    throw e;
+                }
+                backOff(attempt, e);
+            }
+        }
+    }
+
+    private <T> T runTransaction(int isolation, Transaction.Work<T> work) throws SQLException {
+        Transaction tx;
+        T result;
+
+        // On failure the pool rolls back and restores autocommit and isolation when the connection is returned
+        try (PooledConnection pc = pool.borrow("transaction")) {
+            Connection connection = pc.getConnection();
+            pc.setTransactionIsolation(isolation);
+            connection.setAutoCommit(false);
+
+            tx = new Transaction(this, pc);
+            try {
+                result = work.execute(tx);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                tx.restoreUpdatedStudents();
+                throw e;
+            } finally {
+                tx.end();
+            }
+            connection.setAutoCommit(true);
+        }
+
+        studentsInserted(tx.getInserted());
+        studentsDeleted(tx.getDeletedCount());
+        studentsChanged(tx.getChangedIds());
+        return result;
+    }
+
+    /**
+     * Checks if a failed transaction was rolled back by the database and can be run again
+     */
+    private static boolean isRetryable(SQLException e) {
+        return e instanceof SQLTransactionRollbackException
+                || e.getErrorCode() == DEADLOCK_ERROR_CODE
+                || SERIALIZATION_FAILURE_SQL_STATE.equals(e.getSQLState());
+    }
+
+    /**
+     * Checks if a failed statement may have rolled back its whole transaction, not just itself
+     * Callers that carry on after a failed statement must give up on the transaction instead
+     */
+    static boolean rollsBackTransaction(SQLException e) {
+        return isRetryable(e) || e.getErrorCode() == LOCK_WAIT_TIMEOUT_ERROR_CODE;
+    }
+
+    /**
+     * Sleeps before a retry so competing transactions do not collide again in lockstep
+     */
+    private static void backOff(int attempt, SQLException cause) throws SQLException {
+        long delay = (long) DatabaseConfig.TRANSACTION_RETRY_BACKOFF_MILLIS << attempt;
+        try {
+            Thread.sleep(delay + ThreadLocalRandom.current().nextLong(delay + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+
+    // Connection-level operations
+    // These run on a caller-supplied connection, let SQLException propagate and leave
+    // the student cache alone, so callers can group several of them in one transaction
+    // and refresh the cache once the transaction has committed
+
+    /**
+     * Inserts a student and sets its generated ID
+     * @return Number of rows inserted
+     */
+    int insertStudent(PooledConnection pc, Student student) throws SQLException {
+        PreparedStatement pstmt = pc.prepareStatement(DatabaseConfig.INSERT_STUDENT_SQL,
+                Statement.RETURN_GENERATED_KEYS);
+        bindStudent(pstmt, student);
+
+        int rowsAffected = pstmt.executeUpdate();
+        if (rowsAffected > 0) {
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    student.setId(keys.getInt(1));
+                }
+            }
+        }
+        return rowsAffected;
+    }
+
+    /**
+     * Reads a student by ID, bypassing the cache
+     * @return The student, or null if no row has that ID
+     */
+    Student selectStudentById(PooledConnection pc, int id) throws SQLException {
+        PreparedStatement pstmt = pc.prepareStatement(DatabaseConfig.SELECT_STUDENT_BY_ID_SQL);
+        pstmt.setInt(1, id);
+
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? readStudent(rs) : null;
+        }
+    }
+
+    /**
+     * Reads a student by ID and locks its row until the transaction ends
+     * @return The student, or null if no row has that ID
+     */
+    Student selectStudentByIdForUpdate(PooledConnection pc, int id) throws SQLException {
+        PreparedStatement pstmt = pc.prepareStatement(DatabaseConfig.SELECT_STUDENT_BY_ID_FOR_UPDATE_SQL);
+        pstmt.setInt(1, id);
+
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? readStudent(rs) : null;
+        }
+    }
+
+    /**
+     * Overwrites all columns of the student with the given ID
+     * @return Number of rows updated
+     */
+    int updateStudentRow(PooledConnection pc, int id, Student student) throws SQLException {
+        PreparedStatement pstmt = pc.prepareStatement(DatabaseConfig.UPDATE_STUDENT_SQL);
+        bindStudent(pstmt, student);
+        pstmt.setInt(5, id);
+        return pstmt.executeUpdate();
+    }
+
+    /**
+     * Writes the student's changed fields only if its row still has the student's version,
+     * then advances the version and clears the changed fields
+     * @return UPDATED, UNCHANGED, CONFLICT or NOT_FOUND
+     */
+    UpdateResult updateStudentIfVersion(PooledConnection pc, Student student) throws SQLException {
+        int fields = student.getDirtyFields();
+        if (fields == 0) {
+            return UpdateResult.UNCHANGED;
+        }
+
+        PreparedStatement pstmt = pc.prepareStatement(PARTIAL_UPDATE_SQL[fields]);
+        int index = bindChangedFields(pstmt, student, fields);
+        pstmt.setInt(index++, student.getId());
+        pstmt.setInt(index, student.getVersion());
+        if (pstmt.executeUpdate() > 0) {
+            student.setVersion(student.getVersion() + 1);
+            student.clearDirtyFields();
+            return UpdateResult.UPDATED;
+        }
+
+        // Nothing matched: tell a concurrent change apart from a deleted row
+        PreparedStatement check = pc.prepareStatement(DatabaseConfig.SELECT_STUDENT_VERSION_SQL);
+        check.setInt(1, student.getId());
+        try (ResultSet rs = check.executeQuery()) {
+            return rs.next() ? UpdateResult.CONFLICT : UpdateResult.NOT_FOUND;
+        }
+    }
+
+    /**
+     * Deletes the student with the given ID
+     * @return Number of rows deleted
+     */
+    int deleteStudentRow(PooledConnection pc, int id) throws SQLException {
+        PreparedStatement pstmt = pc.prepareStatement(DatabaseConfig.DELETE_STUDENT_SQL);
+        pstmt.setInt(1, id);
+        return pstmt.executeUpdate();
+    }
+
+    /**
+     * Computes the statistics with aggregate queries, in one transaction so they all see the same rows
+     * @return The statistics
+     */
+    StudentStatistics selectStatistics(PooledConnection pc) throws SQLException {
+        Connection connection = pc.getConnection();
+        connection.setAutoCommit(false);
+
+        int studentCount = 0;
+        long totalAge = 0;
+        try (ResultSet rs = pc.prepareStatement(DatabaseConfig.SUM_STUDENT_AGES_SQL).executeQuery()) {
+            if (rs.next()) {
+                studentCount = rs.getInt(1);
+                totalAge = rs.getLong(2);
+            }
+        }
+
+        Map<String, Integer> studentsPerCourse = new HashMap<>();
+        try (ResultSet rs = pc.prepareStatement(DatabaseConfig.COUNT_STUDENTS_PER_COURSE_SQL).executeQuery()) {
+            while (rs.next()) {
+                studentsPerCourse.put(rs.getString(1), rs.getInt(2));
+            }
+        }
+
+        Map<Integer, Integer> studentsPerAge = new HashMap<>();
+        try (ResultSet rs = pc.prepareStatement(DatabaseConfig.COUNT_STUDENTS_PER_AGE_SQL).executeQuery()) {
+            while (rs.next()) {
+                studentsPerAge.put(rs.getInt(1), rs.getInt(2));
+            }
+        }
+
+        connection.commit();
+        connection.setAutoCommit(true);
+        return new StudentStatistics(studentCount, totalAge, studentsPerCourse, studentsPerAge);
+    }
+
+    /**
+     * Counts the rows of the students table
+     * @return Number of students
+     */
+    int selectStudentCount(PooledConnection pc) throws SQLException {
+        try (ResultSet rs = pc.prepareStatement(DatabaseConfig.COUNT_STUDENTS_SQL).executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Finds students whose name contains the given text
+     * @return Matching students ordered by name
+     */
+    List<Student> selectStudentsByName(PooledConnection pc, String namePattern) throws SQLException {
+        List<Student> students = new ArrayList<>();
+        PreparedStatement pstmt = pc.prepareStatement(DatabaseConfig.SEARCH_STUDENTS_BY_NAME_SQL);
+        pstmt.setString(1, "%" + namePattern + "%");
+
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                students.add(readStudent(rs));
+            }
+        }
+        return students;
+    }
+
+    /**
+     * Builds "UPDATE students SET <changed columns>, version = version + 1 WHERE id = ? AND version = ?"
+     * for each combination of Student.FIELD_* flags; the pooled connections cache the prepared forms
+     */
+    private static String[] buildPartialUpdateSql() {
+        // In Student.FIELD_* bit order
+        String[] columns = {DatabaseConfig.COLUMN_NAME, DatabaseConfig.COLUMN_EMAIL,
+                DatabaseConfig.COLUMN_AGE, DatabaseConfig.COLUMN_COURSE};
+        String[] sql = new String[1 << columns.length];
+
+        for (int fields = 1; fields < sql.length; fields++) {
+            StringBuilder sb = new StringBuilder("UPDATE ").append(DatabaseConfig.TABLE_STUDENTS).append(" SET ");
+            for (int bit = 0; bit < columns.length; bit++) {
+                if ((fields & (1 << bit)) != 0) {
+                    sb.append(columns[bit]).append(" = ?, ");
+                }
+            }
+            sb.append(DatabaseConfig.COLUMN_VERSION).append(" = ").append(DatabaseConfig.COLUMN_VERSION).append(" + 1")
+                    .append(" WHERE ").append(DatabaseConfig.COLUMN_ID).append(" = ?")
+                    .append(" AND ").append(DatabaseConfig.COLUMN_VERSION).append(" = ?");
+            sql[fields] = sb.toString();
+        }
+        return sql;
+    }
+
+    /**
+     * Binds the changed fields in column order
+     * @return Index of the next parameter
+     */
+    private static int bindChangedFields(PreparedStatement pstmt, Student student, int fields) throws SQLException {
+        int index = 1;
+        if ((fields & Student.FIELD_NAME) != 0) {
+            pstmt.setString(index++, student.getName());
+        }
+        if ((fields & Student.FIELD_EMAIL) != 0) {
+            pstmt.setString(index++, student.getEmail());
+        }
+        if ((fields & Student.FIELD_AGE) != 0) {
+            pstmt.setInt(index++, student.getAge());
+        }
+        if ((fields & Student.FIELD_COURSE) != 0) {
+            pstmt.setString(index++, student.getCourse());
+        }
+        return index;
+    }
+
+    private static Student readStudent(ResultSet rs) throws SQLException {
+        return new Student(
+                rs.getInt("id"),
+                rs.getString("name"),
+                rs.getString("email"),
+                rs.getInt("age"),
+                rs.getString("course"),
+                rs.getInt("version")
+        );
+    }
+
+    /**
+     * Checks if database connection is active
+     * @return true if the connection pool is open, false otherwise
+     */
+    @Override
+    public boolean isConnectionActive() {
+        return pool != null && !pool.isClosed();
+    }
+
+    /**
+     * Gets the connection pool used by this manager
+     * @return The connection pool, or null if the database is not connected
+     */
+    public ConnectionPool getConnectionPool() {
+        return pool;
+    }
+
+    /**
+     * Gets the cache used by findStudentById (for hit/miss metrics)
+     * @return The student cache
+     */
+    public StudentCache getStudentCache() {
+        return studentCache;
+    }
+
+    /**
+     * Gets the statement cache hit ratio across all pooled connections
+     * @return Hit ratio between 0.0 and 1.0, or 0.0 if nothing has been prepared yet
+     */
+    public double getStatementCacheHitRatio() {
+        if (pool == null) {
+            return 0.0;
+        }
+        long hits = pool.getStatementCacheHits();
+        long total = hits + pool.getStatementCacheMisses();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Gets the per-operation latency, row and error metrics collected by the connection pool
+     * @return The metrics, or null if not connected or DatabaseConfig.QUERY_METRICS_ENABLED is false
+     */
+    public QueryMetrics getQueryMetrics() {
+        return pool == null ? null : pool.getQueryMetrics();
+    }
+
+    /**
+     * Closes the connection pool and all idle connections
+     */
+    @Override
+    public synchronized void closeConnection() {
+        if (countReconciler != null) {
+            countReconciler.shutdownNow();
+        }
+        if (pool != null && !pool.isClosed()) {
+            pool.close();
+            System.out.println("Database connection closed successfully.");
         }
     }
 }
\ No newline at end of file
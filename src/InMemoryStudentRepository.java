@@ -0,0 +1,420 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * InMemoryStudentRepository class is a StudentRepository that keeps students on the heap
+ * It needs no database server or driver, so tests and local loads can run at memory
+ * speed and benchmarks can compare it with the JDBC backends. It enforces the same
+ * rules as the students table: generated IDs, unique case-insensitive emails, the
+ * NOT NULL and age CHECK constraints, and a version that every update increments.
+ * Nothing is persisted; the data is gone when the process exits
+ *
+ * Stored students are never modified in place: updates replace them with a new
+ * copy, so readers can work on a snapshot of references outside the lock
+ */
+public class InMemoryStudentRepository implements StudentRepository {
+    private static final String DUPLICATE_EMAIL = "Email already exists";
+
+    // Same order as the SQL search (ORDER BY name with a case-insensitive collation)
+    private static final Comparator<Student> BY_NAME =
+            Comparator.comparing(Student::getName, String.CASE_INSENSITIVE_ORDER).thenComparingInt(Student::getId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final NavigableMap<Integer, Student> studentsById = new TreeMap<>();
+    private final Map<String, Integer> idByEmail = new HashMap<>();
+    private int nextId = 1;
+
+    private volatile boolean closed;
+
+    @Override
+    public boolean addStudent(Student student) {
+        lock.writeLock().lock();
+        try {
+            String error = checkConstraints(student, 0);
+            if (error != null) {
+                printError("adding", error);
+                return false;
+            }
+            insertLocked(student);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public BatchInsertResult addStudents(Iterable<Student> students) {
+        BatchInsertResult result = new BatchInsertResult();
+        int index = 0;
+
+        lock.writeLock().lock();
+        try {
+            for (Student student : students) {
+                String error = checkConstraints(student, 0);
+                if (error == null) {
+                    insertLocked(student);
+                    result.recordInserted();
+                } else {
+                    int errorCode = error.equals(DUPLICATE_EMAIL) ? DatabaseManager.DUPLICATE_ENTRY_ERROR_CODE : 0;
+                    result.recordRejected(index, student, errorCode, error);
+                }
+                index++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return result;
+    }
+
+    @Override
+    public List<Student> getAllStudents() {
+        List<Student> students = new ArrayList<>();
+        for (Student student : snapshot()) {
+            students.add(new Student(student));
+        }
+        return students;
+    }
+
+    @Override
+    public int forEachStudent(Consumer<? super Student> action) {
+        int count = 0;
+        for (Student student : snapshot()) {
+            action.accept(new Student(student));
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public List<Student> getStudentsAfter(int lastId, int pageSize) {
+        List<Student> students = new ArrayList<>(Math.min(pageSize, 1024));
+        lock.readLock().lock();
+        try {
+            for (Student student : studentsById.tailMap(lastId, false).values()) {
+                if (students.size() == pageSize) {
+                    break;
+                }
+                students.add(new Student(student));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return students;
+    }
+
+    @Override
+    public Student findStudentById(int id) {
+        lock.readLock().lock();
+        try {
+            Student student = studentsById.get(id);
+            return student == null ? null : new Student(student);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean updateStudent(int id, Student student) {
+        lock.writeLock().lock();
+        try {
+            Student existing = studentsById.get(id);
+            if (existing == null) {
+                return false;
+            }
+            String error = checkConstraints(student, id);
+            if (error != null) {
+                printError("updating", error);
+                return false;
+            }
+            replaceLocked(existing, new Student(id, student.getName(), student.getEmail(), student.getAge(),
+                    student.getCourse(), existing.getVersion() + 1));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public UpdateResult updateStudent(Student student) {
+        int fields = student.getDirtyFields();
+        if (fields == 0) {
+            return UpdateResult.UNCHANGED;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Student existing = studentsById.get(student.getId());
+            if (existing == null) {
+                return UpdateResult.NOT_FOUND;
+            }
+            if (existing.getVersion() != student.getVersion()) {
+                return UpdateResult.CONFLICT;
+            }
+
+            // Apply only the changed fields, like the partial UPDATE in DatabaseManager
+            Student updated = new Student(existing);
+            if ((fields & Student.FIELD_NAME) != 0) {
+                updated.setName(student.getName());
+            }
+            if ((fields & Student.FIELD_EMAIL) != 0) {
+                updated.setEmail(student.getEmail());
+            }
+            if ((fields & Student.FIELD_AGE) != 0) {
+                updated.setAge(student.getAge());
+            }
+            if ((fields & Student.FIELD_COURSE) != 0) {
+                updated.setCourse(student.getCourse());
+            }
+            String error = checkConstraints(updated, existing.getId());
+            if (error != null) {
+                printError("updating", error);
+                return UpdateResult.FAILED;
+            }
+
+            updated.setVersion(existing.getVersion() + 1);
+            updated.clearDirtyFields();
+            replaceLocked(existing, updated);
+
+            student.setVersion(updated.getVersion());
+            student.clearDirtyFields();
+            return UpdateResult.UPDATED;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteStudent(int id) {
+        lock.writeLock().lock();
+        try {
+            Student removed = studentsById.remove(id);
+            if (removed == null) {
+                return false;
+            }
+            idByEmail.remove(emailKey(removed.getEmail()));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches students by name (case-insensitive partial match)
+     * SQL wildcards in the pattern are matched literally
+     * @param namePattern The name pattern to search for
+     * @return List of students matching the pattern, ordered by name
+     */
+    @Override
+    public List<Student> searchStudentsByName(String namePattern) {
+        List<Student> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Student student : studentsById.values()) {
+                if (containsIgnoreCase(student.getName(), namePattern)) {
+                    matches.add(new Student(student));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(BY_NAME);
+        return matches;
+    }
+
+    @Override
+    public int getStudentCount() {
+        lock.readLock().lock();
+        try {
+            return studentsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public StudentStatistics getStatistics() {
+        Map<String, Integer> studentsPerCourse = new HashMap<>();
+        Map<Integer, Integer> studentsPerAge = new HashMap<>();
+        long totalAge = 0;
+        int count;
+
+        lock.readLock().lock();
+        try {
+            for (Student student : studentsById.values()) {
+                studentsPerCourse.merge(student.getCourse(), 1, Integer::sum);
+                studentsPerAge.merge(student.getAge(), 1, Integer::sum);
+                totalAge += student.getAge();
+            }
+            count = studentsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new StudentStatistics(count, totalAge, studentsPerCourse, studentsPerAge);
+    }
+
+    @Override
+    public boolean isConnectionActive() {
+        return !closed;
+    }
+
+    /**
+     * Discards all students
+     */
+    @Override
+    public void closeConnection() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        lock.writeLock().lock();
+        try {
+            studentsById.clear();
+            idByEmail.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("In-memory student store closed.");
+    }
+
+    // Recovery hooks used by LocalStudentStore while it loads its snapshot and log.
+    // They bypass the constraint checks because a replayed log passes through states
+    // that were only valid in their original order; call rebuildEmailIndex() when done
+
+    /**
+     * Stores a row exactly as given, keeping its ID and version
+     */
+    void restoreStudent(Student stored) {
+        lock.writeLock().lock();
+        try {
+            Student copy = new Student(stored);
+            studentsById.put(copy.getId(), copy);
+            nextId = Math.max(nextId, copy.getId() + 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void restoreDeletion(int id) {
+        lock.writeLock().lock();
+        try {
+            studentsById.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void rebuildEmailIndex() {
+        lock.writeLock().lock();
+        try {
+            idByEmail.clear();
+            for (Student student : studentsById.values()) {
+                idByEmail.put(emailKey(student.getEmail()), student.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int getNextId() {
+        lock.readLock().lock();
+        try {
+            return nextId;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void setNextId(int nextId) {
+        lock.writeLock().lock();
+        try {
+            this.nextId = Math.max(this.nextId, nextId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Constraint checks mirroring the students table definition
+
+    /**
+     * Checks a row against the table constraints
+     * @param ownId ID of the row being updated (its own email is allowed), or 0 for an insert
+     * @return The violation, or null if the row is acceptable
+     */
+    private String checkConstraints(Student student, int ownId) {
+        if (student.getName() == null || student.getEmail() == null || student.getCourse() == null) {
+            return "Name, email and course cannot be null";
+        }
+        if (student.getAge() <= 0 || student.getAge() >= 150) {
+            return "Age " + student.getAge() + " violates the age check constraint";
+        }
+        Integer owner = idByEmail.get(emailKey(student.getEmail()));
+        if (owner != null && owner != ownId) {
+            return DUPLICATE_EMAIL;
+        }
+        return null;
+    }
+
+    private static void printError(String action, String error) {
+        if (error.equals(DUPLICATE_EMAIL)) {
+            System.out.println("Error: Email already exists in database!");
+        } else {
+            System.out.println("Error " + action + " student: " + error);
+        }
+    }
+
+    private void insertLocked(Student student) {
+        int id = nextId++;
+        Student stored = new Student(id, student.getName(), student.getEmail(), student.getAge(),
+                student.getCourse(), 0);
+        studentsById.put(id, stored);
+        idByEmail.put(emailKey(stored.getEmail()), id);
+        student.setId(id);
+    }
+
+    private void replaceLocked(Student existing, Student updated) {
+        idByEmail.remove(emailKey(existing.getEmail()));
+        idByEmail.put(emailKey(updated.getEmail()), updated.getId());
+        studentsById.put(updated.getId(), updated);
+    }
+
+    /**
+     * Takes the current students in ID order so callers can iterate without holding the lock
+     * The returned objects are the stored rows and must not be modified
+     */
+    Student[] snapshot() {
+        lock.readLock().lock();
+        try {
+            return studentsById.values().toArray(new Student[0]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Case-insensitive String.contains without lower-casing copies of every name
+     */
+    private static boolean containsIgnoreCase(String text, String part) {
+        for (int i = 0; i <= text.length() - part.length(); i++) {
+            if (text.regionMatches(true, i, part, 0, part.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // MySQL's default collation compares emails case-insensitively
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,20 +1,48 @@
 import java.util.Scanner;
-import java.util.regex.Pattern;
 
 /**
  * InputValidator class handles all user input validation and processing
- * This utility class provides methods for safe input handling with validation
+ * This utility class provides methods for safe input handling with validation;
+ * the validation rules themselves live in StudentValidator
  */
 public class InputValidator {
     private static final Scanner scanner = new Scanner(System.in);
 
-    // Email validation pattern
-    private static final Pattern EMAIL_PATTERN =
-            Pattern.compile("^[A-Za-z0-9+_.-]+@([A-Za-z0-9.-]+\\.[A-Za-z]{2,})$");
+    /**
+     * Checks if a name matches the allowed format
+     * @param name The name to check
+     * @return true if valid, false otherwise
+     */
+    public static boolean isValidName(String name) {
+        return StudentValidator.isValidName(name);
+    }
+
+    /**
+     * Checks if an email address matches the allowed format
+     * @param email The email to check
+     * @return true if valid, false otherwise
+     */
+    public static boolean isValidEmail(String email) {
+        return StudentValidator.isValidEmail(email);
+    }
 
-    // Name validation pattern (letters, spaces, and common punctuation)
-    private static final Pattern NAME_PATTERN =
-            Pattern.compile("^[a-zA-Z\\s'-]{2,50}$");
+    /**
+     * Checks if an age is within the allowed range (16 to 100)
+     * @param age The age to check
+     * @return true if valid, false otherwise
+     */
+    public static boolean isValidAge(int age) {
+        return StudentValidator.isValidAge(age);
+    }
+
+    /**
+     * Checks if a course name has an allowed length (2 to 50 characters)
+     * @param course The course name to check
+     * @return true if valid, false otherwise
+     */
+    public static boolean isValidCourse(String course) {
+        return StudentValidator.isValidCourse(course);
+    }
 
     /**
      * Gets a string input from user with validation
@@ -93,11 +121,11 @@ public class InputValidator {
         while (true) {
             String name = getStringInput(prompt);
 
-            if (NAME_PATTERN.matcher(name).matches()) {
+            if (isValidName(name)) {
                 return name;
             }
 
-            System.out.println("Invalid name format. Name should contain only letters, spaces, hyphens, and apostrophes (2-50 characters).");
+            System.out.println("Invalid name format. " + StudentValidator.Field.NAME.getMessage() + ".");
         }
     }
 
@@ -110,11 +138,11 @@ public class InputValidator {
         while (true) {
             String email = getStringInput(prompt);
 
-            if (EMAIL_PATTERN.matcher(email).matches()) {
+            if (isValidEmail(email)) {
                 return email.toLowerCase(); // Store emails in lowercase
             }
 
-            System.out.println("Invalid email format. Please enter a valid email address (e.g., user@example.com).");
+            System.out.println("Invalid email format. " + StudentValidator.Field.EMAIL.getMessage() + ".");
         }
     }
 
@@ -132,7 +160,7 @@ public class InputValidator {
             return defaultValue;
         }
 
-        if (EMAIL_PATTERN.matcher(input).matches()) {
+        if (isValidEmail(input)) {
             return input.toLowerCase();
         }
 
@@ -149,11 +177,11 @@ public class InputValidator {
         while (true) {
             int age = getIntInput(prompt);
 
-            if (age >= 16 && age <= 100) {
+            if (isValidAge(age)) {
                 return age;
             }
 
-            System.out.println("Age must be between 16 and 100 years.");
+            System.out.println(StudentValidator.Field.AGE.getMessage() + ".");
         }
     }
 
@@ -173,7 +201,7 @@ public class InputValidator {
 
         try {
             int age = Integer.parseInt(input);
-            if (age >= 16 && age <= 100) {
+            if (isValidAge(age)) {
                 return age;
             }
             System.out.println("Invalid age (must be 16-100), keeping current value: " + defaultValue);
@@ -193,11 +221,11 @@ public class InputValidator {
         while (true) {
             String course = getStringInput(prompt);
 
-            if (course.length() >= 2 && course.length() <= 50) {
+            if (isValidCourse(course)) {
                 return course;
             }
 
-            System.out.println("Course name must be between 2 and 50 characters.");
+            System.out.println(StudentValidator.Field.COURSE.getMessage() + ".");
         }
     }
 
@@ -215,7 +243,7 @@ public class InputValidator {
             return defaultValue;
         }
 
-        if (input.length() >= 2 && input.length() <= 50) {
+        if (isValidCourse(input)) {
             return input;
         }
 
@@ -0,0 +1,523 @@
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * JdbcInstrumentation class wraps PreparedStatements and ResultSets to feed QueryMetrics and SlowQueryLog
+ * The wrappers extend DelegatingPreparedStatement and DelegatingResultSet and override
+ * only the calls they measure, so every JDBC call is one direct call on the driver's
+ * object with no reflection or boxing; reading a column costs an addition to the
+ * byte count. Execution time is measured around execute*(); fetch time is the time spent
+ * inside ResultSet.next(), so work the caller does between rows is not counted. A query
+ * is recorded once its ResultSet is exhausted, closed or replaced by the next execution
+ * of the same statement
+ *
+ * Statements are attributed to the operation their PooledConnection was borrowed for
+ * at the time they run, which lets a cached statement serve many operations. When a
+ * slow query log is configured, values passed to set*() are kept so a slow statement
+ * can be logged with its parameters
+ */
+final class JdbcInstrumentation {
+
+    private JdbcInstrumentation() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Wraps a statement so its executions are recorded
+     * @param statement The driver's statement
+     * @param sql The SQL text the statement was prepared with
+     * @param owner The connection whose current operation names each execution
+     * @param metrics Destination for the measurements, or null
+     * @param slowQueryLog Log for statements over its threshold, or null
+     * @return A PreparedStatement that delegates to the driver's statement
+     */
+    static PreparedStatement instrument(PreparedStatement statement, String sql, PooledConnection owner,
+                                        QueryMetrics metrics, SlowQueryLog slowQueryLog) {
+        return new InstrumentedStatement(statement, sql, owner, metrics, slowQueryLog);
+    }
+
+    private static int errorCode(Throwable t) {
+        return t instanceof SQLException ? ((SQLException) t).getErrorCode() : 0;
+    }
+
+    /**
+     * InstrumentedStatement times executions of one PreparedStatement
+     * Only the execute*() methods, close() and the parameter and batch bookkeeping are
+     * overridden; DelegatingPreparedStatement passes everything else through untimed,
+     * including the Statement methods taking SQL text, for the driver to reject
+     */
+    private static final class InstrumentedStatement extends DelegatingPreparedStatement {
+        private static final Object[] NO_PARAMETERS = new Object[0];
+
+        private final String sql;
+        private final PooledConnection owner;
+        private final QueryMetrics metrics;
+        private final SlowQueryLog slowQueryLog;
+
+        // Bound values by position, kept only for the slow query log; copied before
+        // changing once an execution refers to them
+        private Object[] parameters = NO_PARAMETERS;
+        private boolean parametersShared;
+        private int batchSize;
+
+        // The open result of the latest executeQuery, recorded when it finishes
+        private InstrumentedResultSet openResult;
+
+        InstrumentedStatement(PreparedStatement delegate, String sql, PooledConnection owner,
+                              QueryMetrics metrics, SlowQueryLog slowQueryLog) {
+            super(delegate);
+            this.sql = sql;
+            this.owner = owner;
+            this.metrics = metrics;
+            this.slowQueryLog = slowQueryLog;
+        }
+
+        @Override
+        public ResultSet executeQuery() throws SQLException {
+            String operation = beginExecution();
+            long start = System.nanoTime();
+            ResultSet resultSet;
+            try {
+                resultSet = delegate.executeQuery();
+            } catch (SQLException | RuntimeException e) {
+                recordError(operation, e);
+                throw e;
+            }
+            long executeNanos = System.nanoTime() - start;
+
+            InstrumentedResultSet instrumented = new InstrumentedResultSet(resultSet, operation, executeNanos,
+                    boundParameters());
+            openResult = instrumented;
+            return instrumented;
+        }
+
+        @Override
+        public int executeUpdate() throws SQLException {
+            String operation = beginExecution();
+            long start = System.nanoTime();
+            int affected;
+            try {
+                affected = delegate.executeUpdate();
+            } catch (SQLException | RuntimeException e) {
+                recordError(operation, e);
+                throw e;
+            }
+            record(operation, boundParameters(), 0, System.nanoTime() - start, 0, 0, Math.max(0, affected), 0);
+            return affected;
+        }
+
+        @Override
+        public long executeLargeUpdate() throws SQLException {
+            String operation = beginExecution();
+            long start = System.nanoTime();
+            long affected;
+            try {
+                affected = delegate.executeLargeUpdate();
+            } catch (SQLException | RuntimeException e) {
+                recordError(operation, e);
+                throw e;
+            }
+            record(operation, boundParameters(), 0, System.nanoTime() - start, 0, 0, Math.max(0, affected), 0);
+            return affected;
+        }
+
+        @Override
+        public boolean execute() throws SQLException {
+            String operation = beginExecution();
+            long start = System.nanoTime();
+            boolean hasResultSet;
+            try {
+                hasResultSet = delegate.execute();
+            } catch (SQLException | RuntimeException e) {
+                recordError(operation, e);
+                throw e;
+            }
+            record(operation, boundParameters(), 0, System.nanoTime() - start, 0, 0, 0, 0);
+            return hasResultSet;
+        }
+
+        @Override
+        public int[] executeBatch() throws SQLException {
+            String operation = beginExecution();
+            int batchRows = batchSize;
+            long start = System.nanoTime();
+            int[] counts;
+            try {
+                counts = delegate.executeBatch();
+            } catch (SQLException | RuntimeException e) {
+                recordError(operation, e);
+                throw e;
+            } finally {
+                batchSize = 0; // The driver clears the batch whether or not it succeeded
+            }
+            long affected = 0;
+            for (int count : counts) {
+                affected += Math.max(0, count); // SUCCESS_NO_INFO is negative
+            }
+            record(operation, boundParameters(), batchRows, System.nanoTime() - start, 0, 0, affected, 0);
+            return counts;
+        }
+
+        @Override
+        public long[] executeLargeBatch() throws SQLException {
+            String operation = beginExecution();
+            int batchRows = batchSize;
+            long start = System.nanoTime();
+            long[] counts;
+            try {
+                counts = delegate.executeLargeBatch();
+            } catch (SQLException | RuntimeException e) {
+                recordError(operation, e);
+                throw e;
+            } finally {
+                batchSize = 0;
+            }
+            long affected = 0;
+            for (long count : counts) {
+                affected += Math.max(0, count);
+            }
+            record(operation, boundParameters(), batchRows, System.nanoTime() - start, 0, 0, affected, 0);
+            return counts;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            finishOpenResult();
+            delegate.close();
+        }
+
+        @Override
+        public void clearParameters() throws SQLException {
+            parameters = NO_PARAMETERS;
+            delegate.clearParameters();
+        }
+
+        @Override
+        public void addBatch() throws SQLException {
+            batchSize++;
+            delegate.addBatch();
+        }
+
+        @Override
+        public void clearBatch() throws SQLException {
+            batchSize = 0;
+            delegate.clearBatch();
+        }
+
+        @Override
+        public String toString() {
+            return "Instrumented[" + sql + "]";
+        }
+
+        /**
+         * Finishes the previous result and names the operation the next execution belongs to
+         */
+        private String beginExecution() {
+            // Re-executing a statement implicitly closes its previous ResultSet
+            finishOpenResult();
+            String operation = owner.getOperation();
+            return operation == null ? ConnectionPool.UNLABELLED_OPERATION : operation;
+        }
+
+        /**
+         * Hands the current parameters to an execution; a later set*() works on a copy
+         */
+        private Object[] boundParameters() {
+            parametersShared = true;
+            return parameters;
+        }
+
+        private void captureParameter(int index, Object value) {
+            if (index < 1) {
+                return;
+            }
+            if (parametersShared || index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length));
+                parametersShared = false;
+            }
+            parameters[index - 1] = value;
+        }
+
+        private void recordError(String operation, Throwable t) {
+            if (metrics != null) {
+                metrics.recordError(operation, errorCode(t));
+            }
+        }
+
+        private void record(String operation, Object[] boundParameters, int batchRows, long executeNanos,
+                            long fetchNanos, long rows, long affected, long bytes) {
+            if (metrics != null) {
+                metrics.recordExecution(operation, executeNanos, fetchNanos, rows, affected, bytes);
+            }
+            if (slowQueryLog != null && slowQueryLog.isSlow(executeNanos + fetchNanos)) {
+                slowQueryLog.log(operation, sql, boundParameters, batchRows, executeNanos, fetchNanos, rows, affected);
+            }
+        }
+
+        private void finishOpenResult() {
+            if (openResult != null) {
+                openResult.finish();
+                openResult = null;
+            }
+        }
+
+        // Parameters; object setters report through parameterSet, primitive ones are
+        // overridden here so nothing is boxed unless a slow query log is configured
+
+        @Override
+        protected void parameterSet(int parameterIndex, Object value) {
+            if (slowQueryLog != null) {
+                captureParameter(parameterIndex, value);
+            }
+        }
+
+        @Override
+        public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+            delegate.setBoolean(parameterIndex, x);
+            if (slowQueryLog != null) {
+                captureParameter(parameterIndex, x);
+            }
+        }
+
+        @Override
+        public void setByte(int parameterIndex, byte x) throws SQLException {
+            delegate.setByte(parameterIndex, x);
+            if (slowQueryLog != null) {
+                captureParameter(parameterIndex, x);
+            }
+        }
+
+        @Override
+        public void setShort(int parameterIndex, short x) throws SQLException {
+            delegate.setShort(parameterIndex, x);
+            if (slowQueryLog != null) {
+                captureParameter(parameterIndex, x);
+            }
+        }
+
+        @Override
+        public void setInt(int parameterIndex, int x) throws SQLException {
+            delegate.setInt(parameterIndex, x);
+            if (slowQueryLog != null) {
+                captureParameter(parameterIndex, x);
+            }
+        }
+
+        @Override
+        public void setLong(int parameterIndex, long x) throws SQLException {
+            delegate.setLong(parameterIndex, x);
+            if (slowQueryLog != null) {
+                captureParameter(parameterIndex, x);
+            }
+        }
+
+        @Override
+        public void setFloat(int parameterIndex, float x) throws SQLException {
+            delegate.setFloat(parameterIndex, x);
+            if (slowQueryLog != null) {
+                captureParameter(parameterIndex, x);
+            }
+        }
+
+        @Override
+        public void setDouble(int parameterIndex, double x) throws SQLException {
+            delegate.setDouble(parameterIndex, x);
+            if (slowQueryLog != null) {
+                captureParameter(parameterIndex, x);
+            }
+        }
+
+        /**
+         * InstrumentedResultSet counts rows and column data read from one ResultSet
+         * Only next(), close() and the commonly used getters are overridden; other
+         * getters are passed through by DelegatingResultSet and add nothing to the byte count
+         */
+        private final class InstrumentedResultSet extends DelegatingResultSet {
+            private final String operation;
+            private final long executeNanos;
+            private final Object[] boundParameters;
+            private long fetchNanos;
+            private long rows;
+            private long bytes;
+            private boolean finished;
+
+            InstrumentedResultSet(ResultSet delegate, String operation, long executeNanos,
+                                  Object[] boundParameters) {
+                super(delegate);
+                this.operation = operation;
+                this.executeNanos = executeNanos;
+                this.boundParameters = boundParameters;
+            }
+
+            @Override
+            public boolean next() throws SQLException {
+                long start = System.nanoTime();
+                boolean hasRow;
+                try {
+                    hasRow = delegate.next();
+                } catch (SQLException | RuntimeException e) {
+                    fetchNanos += System.nanoTime() - start;
+                    if (!finished) {
+                        finished = true;
+                        recordError(operation, e);
+                    }
+                    throw e;
+                }
+                fetchNanos += System.nanoTime() - start;
+
+                if (hasRow) {
+                    rows++;
+                } else {
+                    finish();
+                }
+                return hasRow;
+            }
+
+            @Override
+            public void close() throws SQLException {
+                finish();
+                delegate.close();
+            }
+
+            void finish() {
+                if (!finished) {
+                    finished = true;
+                    record(operation, boundParameters, 0, executeNanos, fetchNanos, rows, 0, bytes);
+                }
+                if (openResult == this) {
+                    openResult = null;
+                }
+            }
+
+            private long approximateSize(Object value) {
+                if (value == null) {
+                    return 0;
+                }
+                if (value instanceof String) {
+                    return ((String) value).length();
+                }
+                if (value instanceof Integer || value instanceof Float) {
+                    return 4;
+                }
+                if (value instanceof Short) {
+                    return 2;
+                }
+                if (value instanceof Byte || value instanceof Boolean) {
+                    return 1;
+                }
+                if (value instanceof byte[]) {
+                    return ((byte[]) value).length;
+                }
+                return 8;
+            }
+
+            @Override
+            public Statement getStatement() {
+                return InstrumentedStatement.this;
+            }
+
+            // Getters; each adds the size of the value it returns to the byte count
+
+            @Override
+            public String getString(int columnIndex) throws SQLException {
+                String value = delegate.getString(columnIndex);
+                bytes += value == null ? 0 : value.length();
+                return value;
+            }
+
+            @Override
+            public boolean getBoolean(int columnIndex) throws SQLException {
+                boolean value = delegate.getBoolean(columnIndex);
+                bytes += 1;
+                return value;
+            }
+
+            @Override
+            public int getInt(int columnIndex) throws SQLException {
+                int value = delegate.getInt(columnIndex);
+                bytes += 4;
+                return value;
+            }
+
+            @Override
+            public long getLong(int columnIndex) throws SQLException {
+                long value = delegate.getLong(columnIndex);
+                bytes += 8;
+                return value;
+            }
+
+            @Override
+            public double getDouble(int columnIndex) throws SQLException {
+                double value = delegate.getDouble(columnIndex);
+                bytes += 8;
+                return value;
+            }
+
+            @Override
+            public byte[] getBytes(int columnIndex) throws SQLException {
+                byte[] value = delegate.getBytes(columnIndex);
+                bytes += value == null ? 0 : value.length;
+                return value;
+            }
+
+            @Override
+            public Object getObject(int columnIndex) throws SQLException {
+                Object value = delegate.getObject(columnIndex);
+                bytes += approximateSize(value);
+                return value;
+            }
+
+            @Override
+            public String getString(String columnLabel) throws SQLException {
+                String value = delegate.getString(columnLabel);
+                bytes += value == null ? 0 : value.length();
+                return value;
+            }
+
+            @Override
+            public boolean getBoolean(String columnLabel) throws SQLException {
+                boolean value = delegate.getBoolean(columnLabel);
+                bytes += 1;
+                return value;
+            }
+
+            @Override
+            public int getInt(String columnLabel) throws SQLException {
+                int value = delegate.getInt(columnLabel);
+                bytes += 4;
+                return value;
+            }
+
+            @Override
+            public long getLong(String columnLabel) throws SQLException {
+                long value = delegate.getLong(columnLabel);
+                bytes += 8;
+                return value;
+            }
+
+            @Override
+            public double getDouble(String columnLabel) throws SQLException {
+                double value = delegate.getDouble(columnLabel);
+                bytes += 8;
+                return value;
+            }
+
+            @Override
+            public byte[] getBytes(String columnLabel) throws SQLException {
+                byte[] value = delegate.getBytes(columnLabel);
+                bytes += value == null ? 0 : value.length;
+                return value;
+            }
+
+            @Override
+            public Object getObject(String columnLabel) throws SQLException {
+                Object value = delegate.getObject(columnLabel);
+                bytes += approximateSize(value);
+                return value;
+            }
+        }
+    }
+}
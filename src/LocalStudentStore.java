@@ -0,0 +1,422 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * LocalStudentStore class is a StudentRepository persisted in local files, with no database
+ * The students live in an InMemoryStudentRepository, which provides the primary index by
+ * ID and the unique index on email. Every change is first applied there and then appended
+ * to a memory-mapped write-ahead log (StudentLog); when the log grows past
+ * DatabaseConfig.LOCAL_STORE_COMPACT_BYTES, and on close, the whole state is written to a
+ * snapshot file and the log is emptied. Opening the store loads the snapshot and replays
+ * the log on top of it
+ *
+ * The log is forced to disk every DatabaseConfig.LOCAL_STORE_SYNC_INTERVAL_MILLIS, so a
+ * power failure can lose the changes of that last interval; a process crash loses nothing
+ * because the mapped pages belong to the operating system. Set the interval to 0 to force
+ * the log on every write
+ *
+ * The store works on its own ("--backend local") or as a write buffer while MySQL is
+ * unreachable: replayTo() copies its students to another repository and removes them
+ * locally. IDs are local, so replayed students get new IDs from the target
+ */
+public class LocalStudentStore implements StudentRepository {
+    private static final String SNAPSHOT_FILE = "students.snapshot";
+    private static final String LOG_FILE = "students.log";
+    private static final int SNAPSHOT_MAGIC = 0x53544453; // "STDS"
+    private static final byte SNAPSHOT_FORMAT = 1;
+
+    private final Path directory;
+    private final InMemoryStudentRepository state;
+    private final StudentLog log;
+    private final ScheduledExecutorService syncer;
+
+    // Serializes writes, so the log holds changes in the order they were applied; guards the fields below
+    private final Object writeLock = new Object();
+    private boolean unsynced;
+    private volatile boolean closed;
+
+    private LocalStudentStore(Path directory, InMemoryStudentRepository state, StudentLog log) {
+        this.directory = directory;
+        this.state = state;
+        this.log = log;
+        this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "local-store-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens the store in DatabaseConfig.LOCAL_STORE_DIR, creating it if needed
+     * @return The opened store
+     * @throws IOException if the files cannot be read, created or mapped, or the snapshot is damaged
+     */
+    public static LocalStudentStore open() throws IOException {
+        return open(Path.of(DatabaseConfig.LOCAL_STORE_DIR));
+    }
+
+    /**
+     * Opens the store in a directory, creating it if needed
+     * @param directory Directory holding the snapshot and log files
+     * @return The opened store
+     * @throws IOException if the files cannot be read, created or mapped, or the snapshot is damaged
+     */
+    public static LocalStudentStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        InMemoryStudentRepository state = new InMemoryStudentRepository();
+        loadSnapshot(directory.resolve(SNAPSHOT_FILE), state);
+
+        StudentLog log = new StudentLog(directory.resolve(LOG_FILE), DatabaseConfig.LOCAL_STORE_LOG_INITIAL_BYTES,
+                new StudentLog.Visitor() {
+                    @Override
+                    public void put(Student student) {
+                        state.restoreStudent(student);
+                    }
+
+                    @Override
+                    public void delete(int id) {
+                        state.restoreDeletion(id);
+                    }
+                });
+        state.rebuildEmailIndex();
+
+        LocalStudentStore store = new LocalStudentStore(directory, state, log);
+        if (DatabaseConfig.LOCAL_STORE_SYNC_INTERVAL_MILLIS > 0) {
+            long period = DatabaseConfig.LOCAL_STORE_SYNC_INTERVAL_MILLIS;
+            store.syncer.scheduleAtFixedRate(store::sync, period, period, TimeUnit.MILLISECONDS);
+        }
+        return store;
+    }
+
+    /**
+     * Checks whether a store directory holds any files, without opening it
+     * @param directory Directory of the store
+     * @return true if a snapshot or log exists there
+     */
+    public static boolean exists(Path directory) {
+        return Files.exists(directory.resolve(SNAPSHOT_FILE)) || Files.exists(directory.resolve(LOG_FILE));
+    }
+
+    @Override
+    public boolean addStudent(Student student) {
+        synchronized (writeLock) {
+            checkOpen();
+            if (!state.addStudent(student)) {
+                return false;
+            }
+            return logChange(student.getId(), null);
+        }
+    }
+
+    @Override
+    public BatchInsertResult addStudents(Iterable<Student> students) {
+        BatchInsertResult result = new BatchInsertResult();
+        int index = 0;
+
+        synchronized (writeLock) {
+            checkOpen();
+            for (Student student : students) {
+                // One row at a time, so a row whose log write fails is reported like a rejected one
+                BatchInsertResult single = state.addStudents(Collections.singletonList(student));
+                if (!single.getRejectedRows().isEmpty()) {
+                    BatchInsertResult.RejectedRow rejected = single.getRejectedRows().get(0);
+                    result.recordRejected(index, student, rejected.getErrorCode(), rejected.getMessage());
+                } else if (logChange(student.getId(), null)) {
+                    result.recordInserted();
+                } else {
+                    result.recordRejected(index, student, 0, "Could not write the local store log");
+                }
+                index++;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Student> getAllStudents() {
+        return state.getAllStudents();
+    }
+
+    @Override
+    public int forEachStudent(Consumer<? super Student> action) {
+        return state.forEachStudent(action);
+    }
+
+    @Override
+    public List<Student> getStudentsAfter(int lastId, int pageSize) {
+        return state.getStudentsAfter(lastId, pageSize);
+    }
+
+    @Override
+    public Student findStudentById(int id) {
+        return state.findStudentById(id);
+    }
+
+    @Override
+    public boolean updateStudent(int id, Student student) {
+        synchronized (writeLock) {
+            checkOpen();
+            Student before = state.findStudentById(id);
+            if (!state.updateStudent(id, student)) {
+                return false;
+            }
+            return logChange(id, before);
+        }
+    }
+
+    @Override
+    public UpdateResult updateStudent(Student student) {
+        synchronized (writeLock) {
+            checkOpen();
+            Student before = state.findStudentById(student.getId());
+            int version = student.getVersion();
+            int dirtyFields = student.getDirtyFields();
+
+            UpdateResult result = state.updateStudent(student);
+            if (result == UpdateResult.UPDATED && !logChange(student.getId(), before)) {
+                student.setVersion(version);
+                student.setDirtyFields(dirtyFields);
+                return UpdateResult.FAILED;
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public boolean deleteStudent(int id) {
+        synchronized (writeLock) {
+            checkOpen();
+            Student before = state.findStudentById(id);
+            if (!state.deleteStudent(id)) {
+                return false;
+            }
+            return logChange(id, before);
+        }
+    }
+
+    @Override
+    public List<Student> searchStudentsByName(String namePattern) {
+        return state.searchStudentsByName(namePattern);
+    }
+
+    @Override
+    public int getStudentCount() {
+        return state.getStudentCount();
+    }
+
+    @Override
+    public StudentStatistics getStatistics() {
+        return state.getStatistics();
+    }
+
+    @Override
+    public boolean isConnectionActive() {
+        return !closed;
+    }
+
+    /**
+     * Writes a final snapshot and closes the files
+     */
+    @Override
+    public void closeConnection() {
+        synchronized (writeLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            syncer.shutdownNow();
+            compact();
+            try {
+                log.close();
+            } catch (IOException e) {
+                System.out.println("Error closing local store log: " + e.getMessage());
+            }
+        }
+        System.out.println("Local student store closed.");
+    }
+
+    /**
+     * Copies every local student to another repository and removes the copied ones locally
+     * Students the target rejects, such as duplicate emails, and students it never reached
+     * because it failed part way stay in the local store
+     * @param target The repository to replay into, usually the MySQL DatabaseManager; it must
+     *               set the generated ID on every student it inserts
+     * @return Result with the replayed count and the rows that were kept locally
+     */
+    public BatchInsertResult replayTo(StudentRepository target) {
+        synchronized (writeLock) {
+            checkOpen();
+            Student[] stored = state.snapshot();
+            List<Student> pending = new ArrayList<>(stored.length);
+            for (Student student : stored) {
+                pending.add(new Student(student.getName(), student.getEmail(), student.getAge(), student.getCourse()));
+            }
+
+            BatchInsertResult sent = target.addStudents(pending);
+            BatchInsertResult.RejectedRow[] rejected = new BatchInsertResult.RejectedRow[stored.length];
+            for (BatchInsertResult.RejectedRow row : sent.getRejectedRows()) {
+                rejected[row.getIndex()] = row;
+            }
+
+            // A row only counts as replayed once the target has given it an ID; rows the target
+            // never reached, because the connection failed part way, stay for the next replay
+            BatchInsertResult result = new BatchInsertResult();
+            for (int i = 0; i < stored.length; i++) {
+                if (pending.get(i).getId() > 0) {
+                    result.recordInserted();
+                    if (state.deleteStudent(stored[i].getId())) {
+                        logChange(stored[i].getId(), stored[i]);
+                    }
+                } else if (rejected[i] != null) {
+                    result.recordRejected(i, stored[i], rejected[i].getErrorCode(), rejected[i].getMessage());
+                } else {
+                    result.recordRejected(i, stored[i], 0, "Not sent, the target failed before reaching it");
+                }
+            }
+            if (result.getInsertedCount() > 0) {
+                compact();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Writes the current state to a new snapshot and empties the log
+     * The log is only emptied once the snapshot is on disk, and replaying the old log
+     * over the new snapshot gives the same state, so a crash at any point loses nothing
+     */
+    private void compact() {
+        try {
+            writeSnapshot();
+            log.reset();
+            unsynced = false;
+        } catch (IOException e) {
+            System.out.println("Error compacting local store: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends the current row of a changed student to the log
+     * If the append fails the change is undone in memory, so the store never shows
+     * anything it could not persist
+     * @param id ID of the changed student
+     * @param before The row before the change, or null if it was just inserted
+     * @return true if the change was logged
+     */
+    private boolean logChange(int id, Student before) {
+        Student after = state.findStudentById(id);
+        try {
+            if (after == null) {
+                log.appendDelete(id);
+            } else {
+                log.appendPut(after);
+            }
+        } catch (IOException e) {
+            System.out.println("Error writing local store log: " + e.getMessage());
+            if (before == null) {
+                state.deleteStudent(id);
+            } else {
+                state.restoreStudent(before);
+                state.rebuildEmailIndex();
+            }
+            return false;
+        }
+
+        if (DatabaseConfig.LOCAL_STORE_SYNC_INTERVAL_MILLIS == 0) {
+            log.force();
+        } else {
+            unsynced = true;
+        }
+        if (log.size() >= DatabaseConfig.LOCAL_STORE_COMPACT_BYTES) {
+            compact();
+        }
+        return true;
+    }
+
+    private void sync() {
+        synchronized (writeLock) {
+            if (!closed && unsynced) {
+                log.force();
+                unsynced = false;
+            }
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Local student store is closed");
+        }
+    }
+
+    /**
+     * Writes the snapshot to a temporary file, forces it to disk and moves it into place
+     * Layout: int magic, byte format, int next ID, int count, the students as PUT payloads,
+     * int CRC32 of everything before it
+     */
+    private void writeSnapshot() throws IOException {
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        Student[] students = state.snapshot();
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CheckedOutputStream checked = new CheckedOutputStream(Channels.newOutputStream(channel), new CRC32());
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeByte(SNAPSHOT_FORMAT);
+            out.writeInt(state.getNextId());
+            out.writeInt(students.length);
+            for (Student student : students) {
+                StudentLog.writeStudent(out, student);
+            }
+            out.flush();
+            out.writeInt((int) checked.getChecksum().getValue());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void loadSnapshot(Path snapshot, InMemoryStudentRepository state) throws IOException {
+        if (!Files.exists(snapshot)) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+        if (buffer.remaining() < 4 + 1 + 4 + 4 + 4) {
+            throw new IOException("Snapshot " + snapshot + " is truncated");
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.limit() - 4);
+        if (buffer.getInt(buffer.limit() - 4) != (int) crc.getValue()) {
+            throw new IOException("Snapshot " + snapshot + " is damaged (checksum mismatch)");
+        }
+        if (buffer.getInt() != SNAPSHOT_MAGIC || buffer.get() != SNAPSHOT_FORMAT) {
+            throw new IOException("Snapshot " + snapshot + " has an unknown format");
+        }
+
+        int nextId = buffer.getInt();
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            state.restoreStudent(StudentLog.readStudent(buffer));
+        }
+        state.setNextId(nextId);
+    }
+}
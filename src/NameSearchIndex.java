@@ -0,0 +1,259 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * NameSearchIndex class is an in-process trigram index over student names
+ * It answers the same case-insensitive "name contains" question as
+ * SEARCH_STUDENTS_BY_NAME_SQL without scanning the table: every lower-cased name
+ * is split into overlapping three-character sequences, and a query only checks
+ * the rows that contain all of the query's trigrams
+ *
+ * Rows live in append-only slots so posting lists stay sorted and can be
+ * intersected by merging. Updates and deletes mark the old slot dead, and the
+ * index rebuilds itself once dead slots outnumber live ones
+ *
+ * The index only sees writes made through this process's DatabaseManager, so
+ * it should be enabled only when the application is the sole writer
+ */
+public class NameSearchIndex {
+    private static final int[] EMPTY_POSTINGS = new int[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Slot storage (guarded by lock)
+    private Student[] rows = new Student[1024];
+    private String[] lowerNames = new String[1024];
+    private int slotCount;
+    private int deadCount;
+
+    // Student id -> live slot
+    private final Map<Integer, Integer> slotById = new HashMap<>();
+
+    // Trigram -> ascending slot numbers
+    private final Map<Long, PostingList> postings = new HashMap<>();
+
+    /**
+     * Adds or replaces the indexed copy of a student
+     * @param student The student (its id must be set)
+     */
+    public void put(Student student) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(student.getId());
+            addLocked(new Student(student));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a student from the index
+     * @param id The student ID
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every entry from the index
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            rows = new Student[1024];
+            lowerNames = new String[1024];
+            slotCount = 0;
+            deadCount = 0;
+            slotById.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of indexed students
+     * @return Live entry count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds students whose name contains the given text, ignoring case
+     * @param namePattern The text to search for
+     * @return Copies of the matching students ordered by name
+     */
+    public List<Student> search(String namePattern) {
+        String query = namePattern.toLowerCase(Locale.ROOT);
+        List<Student> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            if (query.length() < 3) {
+                // Too short for a trigram, check every live row
+                for (int slot = 0; slot < slotCount; slot++) {
+                    if (rows[slot] != null && lowerNames[slot].contains(query)) {
+                        matches.add(new Student(rows[slot]));
+                    }
+                }
+            } else {
+                int[] candidates = candidateSlots(query);
+                for (int slot : candidates) {
+                    if (rows[slot] != null && lowerNames[slot].contains(query)) {
+                        matches.add(new Student(rows[slot]));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort((a, b) -> {
+            int byName = a.getName().compareToIgnoreCase(b.getName());
+            return byName != 0 ? byName : Integer.compare(a.getId(), b.getId());
+        });
+        return matches;
+    }
+
+    /**
+     * Intersects the posting lists of every trigram in the query, smallest first
+     */
+    private int[] candidateSlots(String query) {
+        Set<Long> seen = new HashSet<>();
+        List<PostingList> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= query.length(); i++) {
+            long trigram = trigram(query, i);
+            if (seen.add(trigram)) {
+                PostingList list = postings.get(trigram);
+                if (list == null) {
+                    return EMPTY_POSTINGS;
+                }
+                lists.add(list);
+            }
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+        int[] result = Arrays.copyOf(lists.get(0).slots, lists.get(0).size);
+        int resultSize = result.length;
+        for (int l = 1; l < lists.size() && resultSize > 0; l++) {
+            resultSize = intersect(result, resultSize, lists.get(l));
+        }
+        return Arrays.copyOf(result, resultSize);
+    }
+
+    /**
+     * Keeps only the entries of result[0..size) that also appear in the posting list
+     * @return The new size of result
+     */
+    private static int intersect(int[] result, int size, PostingList list) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < size && j < list.size; i++) {
+            int slot = result[i];
+            while (j < list.size && list.slots[j] < slot) {
+                j++;
+            }
+            if (j < list.size && list.slots[j] == slot) {
+                result[kept++] = slot;
+            }
+        }
+        return kept;
+    }
+
+    // Mutation helpers (write lock held)
+
+    private void addLocked(Student student) {
+        if (slotCount == rows.length) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+            lowerNames = Arrays.copyOf(lowerNames, lowerNames.length * 2);
+        }
+
+        int slot = slotCount++;
+        String lowerName = student.getName().toLowerCase(Locale.ROOT);
+        rows[slot] = student;
+        lowerNames[slot] = lowerName;
+        slotById.put(student.getId(), slot);
+
+        // Slots only grow, so appending keeps every posting list sorted
+        Set<Long> added = new HashSet<>();
+        for (int i = 0; i + 3 <= lowerName.length(); i++) {
+            long trigram = trigram(lowerName, i);
+            if (added.add(trigram)) {
+                postings.computeIfAbsent(trigram, k -> new PostingList()).add(slot);
+            }
+        }
+    }
+
+    private void removeLocked(int id) {
+        Integer slot = slotById.remove(id);
+        if (slot != null) {
+            rows[slot] = null;
+            lowerNames[slot] = null;
+            deadCount++;
+        }
+    }
+
+    /**
+     * Rebuilds the slots and posting lists once dead entries outnumber live ones
+     */
+    private void compactIfNeeded() {
+        if (deadCount < 1024 || deadCount < slotById.size()) {
+            return;
+        }
+
+        Student[] oldRows = rows;
+        int oldCount = slotCount;
+        rows = new Student[Math.max(1024, slotById.size() * 2)];
+        lowerNames = new String[rows.length];
+        slotCount = 0;
+        deadCount = 0;
+        slotById.clear();
+        postings.clear();
+
+        for (int slot = 0; slot < oldCount; slot++) {
+            if (oldRows[slot] != null) {
+                addLocked(oldRows[slot]);
+            }
+        }
+    }
+
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    /**
+     * PostingList is a growable array of ascending slot numbers
+     */
+    private static class PostingList {
+        int[] slots = new int[4];
+        int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+import java.beans.ConstructorProperties;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * OperationMetrics class is an immutable snapshot of the metrics for one DatabaseManager operation
+ * Latencies cover statement execution plus reading the result set, in microseconds
+ */
+public class OperationMetrics {
+    private final String operation;
+    private final long count;
+    private final long p50Micros;
+    private final long p99Micros;
+    private final long p999Micros;
+    private final long maxMicros;
+    private final double meanMicros;
+    private final long rowsReturned;
+    private final long rowsAffected;
+    private final long bytesRead;
+    private final long errorCount;
+    private final Map<Integer, Long> errorsByCode;
+
+    @ConstructorProperties({"operation", "count", "p50Micros", "p99Micros", "p999Micros", "maxMicros",
+            "meanMicros", "rowsReturned", "rowsAffected", "bytesRead", "errorCount", "errorsByCode"})
+    public OperationMetrics(String operation, long count, long p50Micros, long p99Micros, long p999Micros,
+                            long maxMicros, double meanMicros, long rowsReturned, long rowsAffected,
+                            long bytesRead, long errorCount, Map<Integer, Long> errorsByCode) {
+        this.operation = operation;
+        this.count = count;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.p999Micros = p999Micros;
+        this.maxMicros = maxMicros;
+        this.meanMicros = meanMicros;
+        this.rowsReturned = rowsReturned;
+        this.rowsAffected = rowsAffected;
+        this.bytesRead = bytesRead;
+        this.errorCount = errorCount;
+        this.errorsByCode = Collections.unmodifiableMap(errorsByCode);
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getP50Micros() {
+        return p50Micros;
+    }
+
+    public long getP99Micros() {
+        return p99Micros;
+    }
+
+    public long getP999Micros() {
+        return p999Micros;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public long getRowsReturned() {
+        return rowsReturned;
+    }
+
+    public long getRowsAffected() {
+        return rowsAffected;
+    }
+
+    /**
+     * Gets an estimate of the column data read (string lengths plus fixed sizes for numbers)
+     * @return Approximate bytes read
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Gets the number of failures per SQLException error code
+     * @return Unmodifiable map from vendor error code to count
+     */
+    public Map<Integer, Long> getErrorsByCode() {
+        return errorsByCode;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: count=%d p50=%dus p99=%dus p999=%dus max=%dus rows=%d affected=%d bytes=%d errors=%d",
+                operation, count, p50Micros, p99Micros, p999Micros, maxMicros,
+                rowsReturned, rowsAffected, bytesRead, errorCount);
+    }
+}
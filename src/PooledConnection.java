@@ -0,0 +1,293 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PooledConnection class wraps a physical JDBC connection owned by a ConnectionPool
+ * Closing a PooledConnection returns the underlying connection to its pool
+ * instead of closing the socket, so it can be used in try-with-resources
+ *
+ * Each PooledConnection also keeps an LRU cache of PreparedStatements keyed by
+ * SQL text, so the fixed queries in DatabaseManager are prepared once per
+ * physical connection rather than on every call. When the pool collects query
+ * metrics or logs slow queries the cached statements are instrumented wrappers,
+ * see JdbcInstrumentation
+ */
+public class PooledConnection implements AutoCloseable {
+    // Cache key prefix for statements prepared with RETURN_GENERATED_KEYS
+    private static final String GENERATED_KEYS_PREFIX = "keys:";
+    // Isolation level not read from the driver yet
+    private static final int UNKNOWN_ISOLATION = -1;
+
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statementCache;
+    private final List<PreparedStatement> uncachedStatements = new ArrayList<>();
+    private long cacheHits;
+    private long cacheMisses;
+
+    // Bookkeeping used by the pool for idle eviction and leak detection
+    private long lastReturnedAt;
+    private long borrowedAt;
+    private Thread borrower;
+    private boolean leakReported;
+    private boolean inUse;
+    private volatile String operation;
+    // Statement last handed out to the borrower, and whether the borrower's work was cancelled; see cancel()
+    private volatile PreparedStatement currentStatement;
+    private volatile boolean cancelled;
+
+    // Isolation level tracked here so changing and restoring it costs no extra round-trips
+    private int defaultIsolation = UNKNOWN_ISOLATION;
+    private int isolation = UNKNOWN_ISOLATION;
+
+    PooledConnection(ConnectionPool pool, Connection connection) {
+        this.pool = pool;
+        this.connection = connection;
+        this.lastReturnedAt = System.currentTimeMillis();
+        this.statementCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > pool.getStatementCacheSize()) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets the underlying JDBC connection
+     * @return The physical connection (must not be closed by the caller)
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Gets a PreparedStatement for the given SQL from this connection's cache,
+     * preparing it on a miss. The returned statement is owned by the cache:
+     * callers must close its ResultSets but must not close the statement itself.
+     * When the cache is disabled the statement is closed on return to the pool
+     * @param sql The SQL text (used as the cache key)
+     * @return A PreparedStatement with its parameters cleared
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        return prepareCached(sql, sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    /**
+     * Gets a cached PreparedStatement that can return auto-generated keys
+     * @param sql The SQL text
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS or Statement.NO_GENERATED_KEYS
+     * @return A PreparedStatement with its parameters cleared
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? GENERATED_KEYS_PREFIX + sql : sql;
+        return prepareCached(key, sql, autoGeneratedKeys);
+    }
+
+    private PreparedStatement prepareCached(String key, String sql, int autoGeneratedKeys) throws SQLException {
+        if (cancelled) {
+            throw new SQLException("Statement cancelled");
+        }
+        PreparedStatement pstmt;
+        if (pool.getStatementCacheSize() <= 0) {
+            pstmt = prepareNew(sql, autoGeneratedKeys);
+            uncachedStatements.add(pstmt);
+        } else {
+            pstmt = statementCache.get(key);
+            if (pstmt != null && !pstmt.isClosed()) {
+                cacheHits++;
+                pool.recordStatementCacheHit();
+                pstmt.clearParameters();
+            } else {
+                cacheMisses++;
+                pool.recordStatementCacheMiss();
+                pstmt = prepareNew(sql, autoGeneratedKeys);
+                statementCache.put(key, pstmt);
+            }
+        }
+
+        // Applied on every hand-out since the pool's timeout can change at runtime
+        pstmt.setQueryTimeout(pool.getQueryTimeoutSeconds());
+        currentStatement = pstmt;
+        return pstmt;
+    }
+
+    /**
+     * Prepares a statement on the physical connection, instrumented when the pool
+     * collects metrics or logs slow queries
+     */
+    private PreparedStatement prepareNew(String sql, int autoGeneratedKeys) throws SQLException {
+        PreparedStatement pstmt = connection.prepareStatement(sql, autoGeneratedKeys);
+        QueryMetrics metrics = pool.getQueryMetrics();
+        SlowQueryLog slowQueryLog = pool.getSlowQueryLog();
+        if (metrics == null && slowQueryLog == null) {
+            return pstmt;
+        }
+        return JdbcInstrumentation.instrument(pstmt, sql, this, metrics, slowQueryLog);
+    }
+
+    /**
+     * Gets the number of statement cache hits on this connection
+     * @return Cache hit count
+     */
+    public long getStatementCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * Gets the number of statement cache misses on this connection
+     * @return Cache miss count
+     */
+    public long getStatementCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * Gets the operation this connection was borrowed for, used to label query metrics
+     * @return The operation name passed to ConnectionPool.borrow
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * Returns this connection to its pool
+     */
+    @Override
+    public void close() {
+        pool.release(this);
+    }
+
+    // Package-private state used by ConnectionPool
+
+    /**
+     * Cancels the statement the given borrower is running and refuses to prepare further
+     * statements until the connection is returned, so a cancelled call gives up its
+     * connection promptly. Statement.cancel() stops a query blocked in a socket read,
+     * which interrupting the borrowing thread does not. Called from another thread; does
+     * nothing if the connection has meanwhile been returned or borrowed by someone else
+     * @param borrower The thread whose work is being cancelled
+     */
+    synchronized void cancel(Thread borrower) {
+        if (this.borrower != borrower) {
+            return;
+        }
+        cancelled = true;
+        PreparedStatement pstmt = currentStatement;
+        if (pstmt != null) {
+            try {
+                pstmt.cancel();
+            } catch (SQLException e) {
+                System.out.println("Error cancelling statement: " + e.getMessage());
+            }
+        }
+    }
+
+    synchronized void markBorrowed(String operation, Thread borrower) {
+        this.operation = operation;
+        inUse = true;
+        borrowedAt = System.currentTimeMillis();
+        this.borrower = borrower;
+        cancelled = false;
+        leakReported = false;
+    }
+
+    synchronized void markReturned() {
+        for (PreparedStatement pstmt : uncachedStatements) {
+            closeQuietly(pstmt);
+        }
+        uncachedStatements.clear();
+        inUse = false;
+        operation = null;
+        lastReturnedAt = System.currentTimeMillis();
+        borrower = null;
+        currentStatement = null;
+        cancelled = false;
+    }
+
+    /**
+     * Sets the isolation level for the next transaction; the pool restores the
+     * connection's original level when it is returned
+     * Must be called while no transaction is in progress
+     */
+    void setTransactionIsolation(int level) throws SQLException {
+        if (isolation == UNKNOWN_ISOLATION) {
+            defaultIsolation = connection.getTransactionIsolation();
+            isolation = defaultIsolation;
+        }
+        if (level != isolation) {
+            connection.setTransactionIsolation(level);
+            isolation = level;
+        }
+    }
+
+    void restoreTransactionIsolation() throws SQLException {
+        if (isolation != defaultIsolation) {
+            connection.setTransactionIsolation(defaultIsolation);
+            isolation = defaultIsolation;
+        }
+    }
+
+    boolean isInUse() {
+        return inUse;
+    }
+
+    long getBorrowedAt() {
+        return borrowedAt;
+    }
+
+    long getLastReturnedAt() {
+        return lastReturnedAt;
+    }
+
+    Thread getBorrower() {
+        return borrower;
+    }
+
+    boolean isLeakReported() {
+        return leakReported;
+    }
+
+    void setLeakReported(boolean leakReported) {
+        this.leakReported = leakReported;
+    }
+
+    /**
+     * Closes the physical connection (used when evicting or shutting down the pool)
+     */
+    void closePhysical() {
+        for (PreparedStatement pstmt : statementCache.values()) {
+            closeQuietly(pstmt);
+        }
+        statementCache.clear();
+        for (PreparedStatement pstmt : uncachedStatements) {
+            closeQuietly(pstmt);
+        }
+        uncachedStatements.clear();
+
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.out.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement pstmt) {
+        try {
+            pstmt.close();
+        } catch (SQLException ignored) {
+            // Statement is being discarded anyway
+        }
+    }
+}
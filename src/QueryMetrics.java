@@ -0,0 +1,188 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * QueryMetrics class collects per-operation statistics for the statements run through a ConnectionPool
+ * Each DatabaseManager operation gets a latency histogram (statement execution plus
+ * result set reading), row and byte counters and error counts by SQLException error
+ * code. Time spent waiting for a pooled connection is tracked separately. The
+ * metrics are available through getOperations() and over JMX
+ */
+public class QueryMetrics implements QueryMetricsMXBean {
+    private static final AtomicInteger INSTANCE_COUNTER = new AtomicInteger();
+
+    private final ConcurrentMap<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private final LatencyHistogram poolWait = new LatencyHistogram();
+    private ObjectName objectName;
+
+    /**
+     * Records one completed statement
+     * @param operation The DatabaseManager operation that ran the statement
+     * @param executeNanos Time spent in execute*()
+     * @param fetchNanos Time spent reading the result set (0 for updates)
+     * @param rowsReturned Rows read from the result set
+     * @param rowsAffected Rows changed by an update or batch
+     * @param bytesRead Approximate column data read
+     */
+    void recordExecution(String operation, long executeNanos, long fetchNanos,
+                         long rowsReturned, long rowsAffected, long bytesRead) {
+        OperationStats stats = stats(operation);
+        stats.latency.record(executeNanos + fetchNanos);
+        stats.rowsReturned.add(rowsReturned);
+        stats.rowsAffected.add(rowsAffected);
+        stats.bytesRead.add(bytesRead);
+    }
+
+    /**
+     * Records a failed statement or connection borrow
+     * @param operation The DatabaseManager operation that failed
+     * @param errorCode The vendor error code from the SQLException
+     */
+    void recordError(String operation, int errorCode) {
+        OperationStats stats = stats(operation);
+        stats.errors.increment();
+        stats.errorsByCode.computeIfAbsent(errorCode, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Records the time a caller waited to borrow a connection
+     * @param nanos Wait time in nanoseconds
+     */
+    void recordPoolWait(long nanos) {
+        poolWait.record(nanos);
+    }
+
+    private OperationStats stats(String operation) {
+        return operations.computeIfAbsent(operation, k -> new OperationStats());
+    }
+
+    /**
+     * Gets a snapshot of the metrics for one operation
+     * @param operation The operation name, e.g. "findStudentById"
+     * @return The snapshot, or null if the operation has not run yet
+     */
+    public OperationMetrics getOperation(String operation) {
+        OperationStats stats = operations.get(operation);
+        return stats == null ? null : stats.snapshot(operation);
+    }
+
+    /**
+     * Gets a snapshot of the metrics for every operation that has run
+     * @return Snapshots ordered by operation name
+     */
+    @Override
+    public List<OperationMetrics> getOperations() {
+        List<OperationMetrics> snapshots = new ArrayList<>();
+        for (Map.Entry<String, OperationStats> entry : operations.entrySet()) {
+            snapshots.add(entry.getValue().snapshot(entry.getKey()));
+        }
+        snapshots.sort(Comparator.comparing(OperationMetrics::getOperation));
+        return snapshots;
+    }
+
+    @Override
+    public long getPoolWaitCount() {
+        return poolWait.getCount();
+    }
+
+    @Override
+    public long getPoolWaitP50Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(poolWait.getValueAtPercentile(50));
+    }
+
+    @Override
+    public long getPoolWaitP99Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(poolWait.getValueAtPercentile(99));
+    }
+
+    @Override
+    public long getPoolWaitMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(poolWait.getMaxNanos());
+    }
+
+    /**
+     * Clears all collected metrics
+     */
+    @Override
+    public void reset() {
+        operations.clear();
+        poolWait.reset();
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server
+     * under StudentDatabase:type=QueryMetrics,name=pool-N
+     */
+    synchronized void registerMBean() {
+        if (objectName != null) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("StudentDatabase:type=QueryMetrics,name=pool-"
+                    + INSTANCE_COUNTER.incrementAndGet());
+            server.registerMBean(this, name);
+            objectName = name;
+        } catch (JMException e) {
+            System.out.println("Error registering query metrics MBean: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Removes these metrics from the platform MBean server
+     */
+    synchronized void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            System.out.println("Error unregistering query metrics MBean: " + e.getMessage());
+        }
+        objectName = null;
+    }
+
+    /**
+     * OperationStats holds the live counters for one operation
+     */
+    private static class OperationStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rowsReturned = new LongAdder();
+        final LongAdder rowsAffected = new LongAdder();
+        final LongAdder bytesRead = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final ConcurrentMap<Integer, LongAdder> errorsByCode = new ConcurrentHashMap<>();
+
+        OperationMetrics snapshot(String operation) {
+            Map<Integer, Long> errorCounts = new HashMap<>();
+            for (Map.Entry<Integer, LongAdder> entry : errorsByCode.entrySet()) {
+                errorCounts.put(entry.getKey(), entry.getValue().sum());
+            }
+            return new OperationMetrics(operation,
+                    latency.getCount(),
+                    TimeUnit.NANOSECONDS.toMicros(latency.getValueAtPercentile(50)),
+                    TimeUnit.NANOSECONDS.toMicros(latency.getValueAtPercentile(99)),
+                    TimeUnit.NANOSECONDS.toMicros(latency.getValueAtPercentile(99.9)),
+                    TimeUnit.NANOSECONDS.toMicros(latency.getMaxNanos()),
+                    latency.getMeanNanos() / 1000.0,
+                    rowsReturned.sum(),
+                    rowsAffected.sum(),
+                    bytesRead.sum(),
+                    errors.sum(),
+                    errorCounts);
+        }
+    }
+}
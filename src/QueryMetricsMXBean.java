@@ -0,0 +1,19 @@
+import java.util.List;
+
+/**
+ * QueryMetricsMXBean interface exposes DatabaseManager query metrics over JMX
+ */
+public interface QueryMetricsMXBean {
+
+    List<OperationMetrics> getOperations();
+
+    long getPoolWaitCount();
+
+    long getPoolWaitP50Micros();
+
+    long getPoolWaitP99Micros();
+
+    long getPoolWaitMaxMicros();
+
+    void reset();
+}
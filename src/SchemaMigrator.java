@@ -0,0 +1,162 @@
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * SchemaMigrator class brings the database schema up to the version this application expects
+ * The schema is defined only by the ordered MIGRATIONS list below. Applied versions are
+ * recorded in the schema_version table, so on a current database startup costs one
+ * metadata lookup and one SELECT instead of any DDL. Each migration is a single
+ * statement because MySQL commits DDL implicitly: a failure can never leave a
+ * migration half applied, and the next startup simply retries it
+ *
+ * Version 1 is CREATE TABLE IF NOT EXISTS, so databases created before migrations
+ * existed are adopted without changes
+ */
+public final class SchemaMigrator {
+
+    /**
+     * Migration is one numbered schema change
+     */
+    static final class Migration {
+        final int version;
+        final String description;
+        final String sql;
+
+        Migration(int version, String description, String sql) {
+            this.version = version;
+            this.description = description;
+            this.sql = sql;
+        }
+
+        int checksum() {
+            return sql.hashCode();
+        }
+    }
+
+    // Append new migrations at the end; never change or reorder released ones
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Create students table", DatabaseConfig.CREATE_TABLE_SQL),
+            new Migration(2, "Index students by name for name search and ORDER BY name", DatabaseConfig.CREATE_NAME_INDEX_SQL),
+            new Migration(3, "Index students by course", DatabaseConfig.CREATE_COURSE_INDEX_SQL),
+            new Migration(4, "Index students by age", DatabaseConfig.CREATE_AGE_INDEX_SQL),
+            new Migration(5, "Add version column for optimistic locking", DatabaseConfig.ADD_VERSION_COLUMN_SQL)
+    );
+
+    private SchemaMigrator() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Gets the schema version this application expects
+     * @return The highest migration version
+     */
+    public static int getLatestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    /**
+     * Applies every migration the database has not recorded yet, in version order
+     * @param connection A connection in autocommit mode
+     * @return Number of migrations applied
+     * @throws SQLException if a migration fails; versions applied before it stay recorded
+     */
+    public static int migrate(Connection connection) throws SQLException {
+        if (!schemaVersionTableExists(connection)) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate(DatabaseConfig.CREATE_SCHEMA_VERSION_TABLE_SQL);
+            }
+        }
+
+        Map<Integer, Integer> applied = appliedVersions(connection);
+        checkAppliedVersions(applied);
+
+        int count = 0;
+        for (Migration migration : MIGRATIONS) {
+            if (applied.containsKey(migration.version)) {
+                continue;
+            }
+            apply(connection, migration);
+            count++;
+        }
+        return count;
+    }
+
+    private static boolean schemaVersionTableExists(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        // Identifier case depends on the database, so try the name as written and in both cases
+        for (String name : new String[]{DatabaseConfig.TABLE_SCHEMA_VERSION,
+                DatabaseConfig.TABLE_SCHEMA_VERSION.toUpperCase(Locale.ROOT)}) {
+            try (ResultSet rs = metaData.getTables(connection.getCatalog(), null, name, new String[]{"TABLE"})) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the recorded versions
+     * @return Checksum by version
+     */
+    private static Map<Integer, Integer> appliedVersions(Connection connection) throws SQLException {
+        Map<Integer, Integer> applied = new HashMap<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(DatabaseConfig.SELECT_SCHEMA_VERSIONS_SQL)) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getInt("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Warns about recorded versions that do not match this application's migrations
+     */
+    private static void checkAppliedVersions(Map<Integer, Integer> applied) {
+        Map<Integer, Migration> known = new HashMap<>();
+        for (Migration migration : MIGRATIONS) {
+            known.put(migration.version, migration);
+        }
+
+        for (Map.Entry<Integer, Integer> entry : applied.entrySet()) {
+            Migration migration = known.get(entry.getKey());
+            if (migration == null) {
+                System.out.println("Warning: database schema version " + entry.getKey()
+                        + " is newer than this application (version " + getLatestVersion() + ")");
+            } else if (migration.checksum() != entry.getValue()) {
+                System.out.println("Warning: schema migration " + entry.getKey()
+                        + " was changed after it was applied");
+            }
+        }
+    }
+
+    private static void apply(Connection connection, Migration migration) throws SQLException {
+        long start = System.currentTimeMillis();
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(migration.sql);
+        } catch (SQLException e) {
+            throw new SQLException("Schema migration " + migration.version + " ("
+                    + migration.description + ") failed: " + e.getMessage(),
+                    e.getSQLState(), e.getErrorCode(), e);
+        }
+        int elapsed = (int) (System.currentTimeMillis() - start);
+
+        try (PreparedStatement pstmt = connection.prepareStatement(DatabaseConfig.INSERT_SCHEMA_VERSION_SQL)) {
+            pstmt.setInt(1, migration.version);
+            pstmt.setString(2, migration.description);
+            pstmt.setInt(3, migration.checksum());
+            pstmt.setInt(4, elapsed);
+            pstmt.executeUpdate();
+        }
+        System.out.println("Applied schema migration " + migration.version + ": " + migration.description);
+    }
+}
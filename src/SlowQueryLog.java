@@ -0,0 +1,316 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SlowQueryLog class writes statements that exceed a time threshold to a rolling log file
+ * Callers only add an entry to a bounded queue; a daemon thread formats and writes
+ * the entries, so a slow disk never slows down a query. When the queue is full new
+ * entries are dropped and counted instead of blocking. Once the file grows past the
+ * size limit it is renamed to file.1 (older files shift to file.2 and so on) and a
+ * new file is started
+ *
+ * Each entry is one line:
+ *
+ *   time operation total=12.3ms execute=10.1ms fetch=2.2ms rows=42 affected=0 [batch=N] sql="..." params=[...]
+ *
+ * For a batch the parameters shown are those of its last row
+ */
+public class SlowQueryLog {
+    private static final int MAX_PARAMETER_LENGTH = 100;
+
+    private final Path file;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private volatile long thresholdNanos;
+
+    private final BlockingQueue<Entry> queue;
+    private final Thread writerThread;
+    private final LongAdder loggedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private volatile boolean closed;
+
+    // Owned by the writer thread
+    private BufferedWriter writer;
+    private long fileBytes;
+
+    /**
+     * Creates a slow-query log using the settings from DatabaseConfig
+     */
+    public SlowQueryLog() {
+        this(Path.of(DatabaseConfig.SLOW_QUERY_LOG_FILE),
+                DatabaseConfig.SLOW_QUERY_THRESHOLD_MILLIS,
+                DatabaseConfig.SLOW_QUERY_LOG_MAX_BYTES,
+                DatabaseConfig.SLOW_QUERY_LOG_MAX_FILES,
+                DatabaseConfig.SLOW_QUERY_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates a slow-query log with explicit settings
+     * @param file The active log file
+     * @param thresholdMillis Statements taking at least this long are logged
+     * @param maxFileBytes Size at which the file is rolled over
+     * @param maxFiles Number of rolled-over files to keep
+     * @param queueCapacity Entries that may wait for the writer before new ones are dropped
+     */
+    public SlowQueryLog(Path file, long thresholdMillis, long maxFileBytes, int maxFiles, int queueCapacity) {
+        if (maxFileBytes <= 0 || maxFiles < 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Invalid slow query log settings");
+        }
+        this.file = file;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        this.thresholdNanos = toThresholdNanos(thresholdMillis);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.writerThread = new Thread(this::writeLoop, "slow-query-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Gets the current threshold
+     * @return Threshold in milliseconds
+     */
+    public long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    /**
+     * Changes the threshold at runtime
+     * @param thresholdMillis Statements taking at least this long are logged
+     */
+    public void setThresholdMillis(long thresholdMillis) {
+        this.thresholdNanos = toThresholdNanos(thresholdMillis);
+    }
+
+    private static long toThresholdNanos(long thresholdMillis) {
+        if (thresholdMillis < 0) {
+            throw new IllegalArgumentException("thresholdMillis must not be negative");
+        }
+        return TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    /**
+     * Checks if a statement took long enough to be logged
+     * @param totalNanos Execute plus fetch time
+     * @return true if it should be passed to log()
+     */
+    boolean isSlow(long totalNanos) {
+        return totalNanos >= thresholdNanos;
+    }
+
+    /**
+     * Queues one slow statement for writing; never blocks the caller
+     * @param operation The DatabaseManager operation that ran the statement
+     * @param sql The SQL text
+     * @param parameters The bound parameters by position (index 0 is parameter 1), may be null;
+     *                   for a batch these are the values of its last row
+     * @param batchRows Rows in the batch, 0 if the statement was not a batch
+     * @param executeNanos Time spent in execute*()
+     * @param fetchNanos Time spent reading the result set
+     * @param rows Rows read from the result set
+     * @param affected Rows changed by an update or batch
+     */
+    void log(String operation, String sql, Object[] parameters, int batchRows, long executeNanos,
+             long fetchNanos, long rows, long affected) {
+        if (closed || !queue.offer(new Entry(System.currentTimeMillis(), operation, sql, parameters,
+                batchRows, executeNanos, fetchNanos, rows, affected))) {
+            droppedCount.increment();
+        }
+    }
+
+    /**
+     * Gets the number of entries written to the log
+     * @return Logged entry count
+     */
+    public long getLoggedCount() {
+        return loggedCount.sum();
+    }
+
+    /**
+     * Gets the number of entries dropped because the queue was full or the log was closed
+     * @return Dropped entry count
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * Writes the queued entries and closes the file
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>();
+        // Polls instead of being interrupted on close: an interrupt would also close the file channel
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch);
+            writeAll(batch);
+            batch.clear();
+        }
+        closeWriter();
+    }
+
+    private void writeAll(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            for (Entry entry : entries) {
+                String line = entry.format() + System.lineSeparator();
+                if (writer == null || fileBytes >= maxFileBytes) {
+                    rollOver();
+                }
+                writer.write(line);
+                fileBytes += line.getBytes(StandardCharsets.UTF_8).length;
+                loggedCount.increment();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            System.out.println("Error writing slow query log: " + e.getMessage());
+            closeWriter();
+        }
+    }
+
+    /**
+     * Opens the log file, first shifting it to file.1 if it is full
+     */
+    private void rollOver() throws IOException {
+        closeWriter();
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        if (Files.exists(file) && Files.size(file) >= maxFileBytes) {
+            if (maxFiles == 0) {
+                Files.delete(file);
+            } else {
+                Files.deleteIfExists(rolledFile(maxFiles));
+                for (int i = maxFiles - 1; i >= 1; i--) {
+                    Path source = rolledFile(i);
+                    if (Files.exists(source)) {
+                        Files.move(source, rolledFile(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                Files.move(file, rolledFile(1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        fileBytes = Files.size(file);
+    }
+
+    private Path rolledFile(int generation) {
+        return file.resolveSibling(file.getFileName() + "." + generation);
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                System.out.println("Error closing slow query log: " + e.getMessage());
+            }
+            writer = null;
+        }
+    }
+
+    /**
+     * Renders bound parameters for the log, quoting strings and shortening long values
+     */
+    static String formatParameters(Object[] parameters) {
+        if (parameters == null) {
+            return "[]";
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            Object value = parameters[i];
+            if (value == null) {
+                sb.append("NULL");
+            } else if (value instanceof CharSequence) {
+                String text = value.toString();
+                if (text.length() > MAX_PARAMETER_LENGTH) {
+                    text = text.substring(0, MAX_PARAMETER_LENGTH) + "...";
+                }
+                sb.append('\'').append(text.replace("'", "''")).append('\'');
+            } else if (value instanceof byte[]) {
+                sb.append("<").append(((byte[]) value).length).append(" bytes>");
+            } else {
+                sb.append(value);
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Entry holds one slow statement waiting to be written
+     */
+    private static class Entry {
+        final long timestamp;
+        final String operation;
+        final String sql;
+        final Object[] parameters;
+        final int batchRows;
+        final long executeNanos;
+        final long fetchNanos;
+        final long rows;
+        final long affected;
+
+        Entry(long timestamp, String operation, String sql, Object[] parameters, int batchRows,
+              long executeNanos, long fetchNanos, long rows, long affected) {
+            this.timestamp = timestamp;
+            this.operation = operation;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.batchRows = batchRows;
+            this.executeNanos = executeNanos;
+            this.fetchNanos = fetchNanos;
+            this.rows = rows;
+            this.affected = affected;
+        }
+
+        String format() {
+            return String.format("%s %s total=%.1fms execute=%.1fms fetch=%.1fms rows=%d affected=%d%s sql=\"%s\" params=%s",
+                    Instant.ofEpochMilli(timestamp), operation,
+                    (executeNanos + fetchNanos) / 1e6, executeNanos / 1e6, fetchNanos / 1e6,
+                    rows, affected, batchRows > 0 ? " batch=" + batchRows : "",
+                    sql.replaceAll("\\s+", " ").trim(), formatParameters(parameters));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * StatisticsCounters class keeps the figures of StudentStatistics up to date in memory
+ * DatabaseManager loads it once from the GROUP BY queries and then adjusts it in place
+ * on every insert it performs, so dashboards can read statistics without touching the
+ * table. Updates and deletes invalidate it, because their old rows are not known without
+ * another query, and it expires after a time to live so writes by other applications
+ * are picked up eventually
+ *
+ * A load that overlaps a change is discarded, because the queried figures may or may
+ * not include that change
+ */
+class StatisticsCounters {
+    private final long timeToLiveMillis;
+
+    // Guarded by this
+    private boolean loaded;
+    private long loadedAt;
+    private long modificationCount;
+    private int studentCount;
+    private long totalAge;
+    // Same grouping as MySQL's case-insensitive default collation
+    private final Map<String, Integer> studentsPerCourse = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<Integer, Integer> studentsPerAge = new TreeMap<>();
+
+    /**
+     * Creates empty counters
+     * @param timeToLiveMillis Time after which the counters must be reloaded, 0 means never
+     */
+    StatisticsCounters(long timeToLiveMillis) {
+        this.timeToLiveMillis = timeToLiveMillis;
+    }
+
+    /**
+     * Gets the current figures
+     * @return The statistics, or null if the counters are not loaded or have expired
+     */
+    synchronized StudentStatistics get() {
+        if (!loaded || (timeToLiveMillis > 0 && System.currentTimeMillis() - loadedAt > timeToLiveMillis)) {
+            return null;
+        }
+        return new StudentStatistics(studentCount, totalAge, studentsPerCourse, studentsPerAge);
+    }
+
+    /**
+     * Gets a token to pass to load(), taken before the statistics are queried
+     * @return The current modification count
+     */
+    synchronized long getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Replaces the counters with freshly queried figures
+     * @param statistics Figures computed by the database
+     * @param expectedModificationCount Value of getModificationCount() before the query
+     * @return true if loaded, false if a change happened meanwhile and the figures were discarded
+     */
+    synchronized boolean load(StudentStatistics statistics, long expectedModificationCount) {
+        if (modificationCount != expectedModificationCount) {
+            return false;
+        }
+        studentCount = statistics.getStudentCount();
+        totalAge = statistics.getTotalAge();
+        studentsPerCourse.clear();
+        studentsPerCourse.putAll(statistics.getStudentsPerCourse());
+        studentsPerAge.clear();
+        studentsPerAge.putAll(statistics.getStudentsPerAge());
+        loaded = true;
+        loadedAt = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * Counts a committed insert
+     */
+    synchronized void added(int age, String course) {
+        modificationCount++;
+        if (loaded) {
+            studentCount++;
+            totalAge += age;
+            studentsPerCourse.merge(course, 1, Integer::sum);
+            studentsPerAge.merge(age, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Drops the counters after a change whose effect is unknown; the next read reloads them
+     */
+    synchronized void invalidate() {
+        modificationCount++;
+        loaded = false;
+    }
+}
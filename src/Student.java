@@ -1,14 +1,30 @@
+import java.util.Objects;
+
 /**
  * Student class to represent student data
  * This class encapsulates all student information and provides
  * getter and setter methods for data access
+ *
+ * The setters record which fields were changed, so DatabaseManager.updateStudent(Student)
+ * can write only those columns. Constructors, including the copy constructor, create a
+ * student with no changed fields
  */
 public class Student {
+    // Bit flags for getDirtyFields()
+    public static final int FIELD_NAME = 1;
+    public static final int FIELD_EMAIL = 1 << 1;
+    public static final int FIELD_AGE = 1 << 2;
+    public static final int FIELD_COURSE = 1 << 3;
+
     private int id;
     private String name;
     private String email;
     private int age;
     private String course;
+    // Incremented by every update; an update made with a stale version is rejected as a conflict
+    private int version;
+    // FIELD_* flags of the fields changed through setters since the student was read or saved
+    private int dirtyFields;
 
     // Default constructor
     public Student() {}
@@ -30,6 +46,17 @@ public class Student {
         this.course = course;
     }
 
+    // Full parameterized constructor with the row version (for students read from the database)
+    public Student(int id, String name, String email, int age, String course, int version) {
+        this(id, name, email, age, course);
+        this.version = version;
+    }
+
+    // Copy constructor
+    public Student(Student other) {
+        this(other.id, other.name, other.email, other.age, other.course, other.version);
+    }
+
     // Getter and Setter methods
     public int getId() {
         return id;
@@ -44,7 +71,10 @@ public class Student {
     }
 
     public void setName(String name) {
-        this.name = name;
+        if (!Objects.equals(this.name, name)) {
+            this.name = name;
+            dirtyFields |= FIELD_NAME;
+        }
     }
 
     public String getEmail() {
@@ -52,7 +82,10 @@ public class Student {
     }
 
     public void setEmail(String email) {
-        this.email = email;
+        if (!Objects.equals(this.email, email)) {
+            this.email = email;
+            dirtyFields |= FIELD_EMAIL;
+        }
     }
 
     public int getAge() {
@@ -60,7 +93,10 @@ public class Student {
     }
 
     public void setAge(int age) {
-        this.age = age;
+        if (this.age != age) {
+            this.age = age;
+            dirtyFields |= FIELD_AGE;
+        }
     }
 
     public String getCourse() {
@@ -68,7 +104,45 @@ public class Student {
     }
 
     public void setCourse(String course) {
-        this.course = course;
+        if (!Objects.equals(this.course, course)) {
+            this.course = course;
+            dirtyFields |= FIELD_COURSE;
+        }
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    /**
+     * Checks if any field was changed through a setter since the student was read or saved
+     * @return true if there are unsaved changes
+     */
+    public boolean isDirty() {
+        return dirtyFields != 0;
+    }
+
+    /**
+     * Gets the fields changed through setters since the student was read or saved
+     * @return FIELD_* flags combined with bitwise OR, 0 if nothing changed
+     */
+    public int getDirtyFields() {
+        return dirtyFields;
+    }
+
+    void setDirtyFields(int dirtyFields) {
+        this.dirtyFields = dirtyFields;
+    }
+
+    /**
+     * Forgets the changed fields, for example after they were saved
+     */
+    public void clearDirtyFields() {
+        dirtyFields = 0;
     }
 
     // toString method for displaying student information
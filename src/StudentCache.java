@@ -0,0 +1,288 @@
+import java.util.Arrays;
+
+/**
+ * StudentCache class is a bounded in-process cache of students keyed by id
+ * Keys are stored as primitive ints in an open-addressing hash table, and
+ * entries are evicted least-recently-used first or when their time to live
+ * expires. Cached students are copied on the way in and out so callers can
+ * never modify a cached entry
+ */
+public class StudentCache {
+    private static final int EMPTY = -1;
+
+    private final int capacity;
+    private final long ttlMillis;
+
+    // Hash table of slot indexes, linear probing
+    private final int[] table;
+    private final int mask;
+
+    // Entry slots; prev/next form the LRU list (and the free list through next)
+    private final int[] keys;
+    private final Student[] values;
+    private final long[] expiresAt;
+    private final int[] prev;
+    private final int[] next;
+    private int head = EMPTY; // most recently used
+    private int tail = EMPTY; // least recently used
+    private int freeHead;
+    private int size;
+
+    // Bumped on every invalidation so in-flight loads can detect they are stale
+    private long invalidationCount;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a cache
+     * @param capacity Maximum number of students kept in memory
+     * @param ttlMillis Time to live for each entry in milliseconds (0 means no expiry)
+     */
+    public StudentCache(int capacity, long ttlMillis) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.ttlMillis = ttlMillis;
+
+        int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        this.table = new int[tableSize];
+        this.mask = tableSize - 1;
+        Arrays.fill(table, EMPTY);
+
+        this.keys = new int[capacity];
+        this.values = new Student[capacity];
+        this.expiresAt = new long[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+        initFreeList();
+    }
+
+    private void initFreeList() {
+        for (int i = 0; i < capacity; i++) {
+            next[i] = i + 1 < capacity ? i + 1 : EMPTY;
+            values[i] = null;
+        }
+        freeHead = 0;
+    }
+
+    /**
+     * Gets a copy of the cached student with the given id
+     * @param id The student ID
+     * @return A copy of the cached student, or null on a miss or expired entry
+     */
+    public synchronized Student get(int id) {
+        int pos = find(id);
+        if (pos == EMPTY) {
+            misses++;
+            return null;
+        }
+
+        int slot = table[pos];
+        if (ttlMillis > 0 && System.currentTimeMillis() > expiresAt[slot]) {
+            removeAt(pos);
+            misses++;
+            return null;
+        }
+
+        moveToHead(slot);
+        hits++;
+        return new Student(values[slot]);
+    }
+
+    /**
+     * Records the current invalidation count before loading from the database
+     * @return Stamp to pass to putIfFresh
+     */
+    public synchronized long beginLoad() {
+        return invalidationCount;
+    }
+
+    /**
+     * Caches a student loaded from the database unless an invalidation happened
+     * since the matching beginLoad call, in which case the loaded row may be stale
+     * @param student The loaded student
+     * @param loadStamp Stamp returned by beginLoad
+     */
+    public synchronized void putIfFresh(Student student, long loadStamp) {
+        if (loadStamp == invalidationCount) {
+            put(student);
+        }
+    }
+
+    /**
+     * Adds or replaces the cached copy of a student
+     * @param student The student to cache (its id is the key)
+     */
+    public synchronized void put(Student student) {
+        int id = student.getId();
+        int pos = find(id);
+        int slot;
+
+        if (pos != EMPTY) {
+            slot = table[pos];
+            moveToHead(slot);
+        } else {
+            if (freeHead == EMPTY) {
+                removeAt(find(keys[tail]));
+                evictions++;
+            }
+            slot = freeHead;
+            freeHead = next[slot];
+
+            keys[slot] = id;
+            table[insertionPoint(id)] = slot;
+            linkAtHead(slot);
+            size++;
+        }
+
+        values[slot] = new Student(student);
+        expiresAt[slot] = ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE;
+    }
+
+    /**
+     * Removes the student with the given id from the cache
+     * @param id The student ID
+     */
+    public synchronized void invalidate(int id) {
+        invalidationCount++;
+        int pos = find(id);
+        if (pos != EMPTY) {
+            removeAt(pos);
+        }
+    }
+
+    /**
+     * Removes every entry from the cache
+     */
+    public synchronized void clear() {
+        invalidationCount++;
+        Arrays.fill(table, EMPTY);
+        head = EMPTY;
+        tail = EMPTY;
+        size = 0;
+        initFreeList();
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets the fraction of lookups that were served from the cache
+     * @return Hit ratio between 0.0 and 1.0
+     */
+    public synchronized double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    // Hash table helpers
+
+    private int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * @return Table position holding the key, or EMPTY if absent
+     */
+    private int find(int key) {
+        int pos = hash(key);
+        while (table[pos] != EMPTY) {
+            if (keys[table[pos]] == key) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    private int insertionPoint(int key) {
+        int pos = hash(key);
+        while (table[pos] != EMPTY) {
+            pos = (pos + 1) & mask;
+        }
+        return pos;
+    }
+
+    /**
+     * Removes the entry at a table position, shifting later entries of the
+     * probe sequence back so lookups never stop at a false gap
+     */
+    private void removeAt(int pos) {
+        int slot = table[pos];
+        unlink(slot);
+        values[slot] = null;
+        next[slot] = freeHead;
+        freeHead = slot;
+        size--;
+
+        int gap = pos;
+        int probe = pos;
+        while (true) {
+            probe = (probe + 1) & mask;
+            if (table[probe] == EMPTY) {
+                break;
+            }
+            int home = hash(keys[table[probe]]);
+            // Move the entry into the gap unless its home lies cyclically in (gap, probe]
+            boolean homeBetween = gap <= probe
+                    ? home > gap && home <= probe
+                    : home > gap || home <= probe;
+            if (!homeBetween) {
+                table[gap] = table[probe];
+                gap = probe;
+            }
+        }
+        table[gap] = EMPTY;
+    }
+
+    // LRU list helpers
+
+    private void linkAtHead(int slot) {
+        prev[slot] = EMPTY;
+        next[slot] = head;
+        if (head != EMPTY) {
+            prev[head] = slot;
+        }
+        head = slot;
+        if (tail == EMPTY) {
+            tail = slot;
+        }
+    }
+
+    private void unlink(int slot) {
+        if (prev[slot] != EMPTY) {
+            next[prev[slot]] = next[slot];
+        } else {
+            head = next[slot];
+        }
+        if (next[slot] != EMPTY) {
+            prev[next[slot]] = prev[slot];
+        } else {
+            tail = prev[slot];
+        }
+    }
+
+    private void moveToHead(int slot) {
+        if (slot != head) {
+            unlink(slot);
+            linkAtHead(slot);
+        }
+    }
+}
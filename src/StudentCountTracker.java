@@ -0,0 +1,81 @@
+/**
+ * StudentCountTracker class maintains the number of students for DatabaseManager.getStudentCount
+ * The count is loaded once with SELECT COUNT(*) and then adjusted by every insert and
+ * delete DatabaseManager commits, so asking for it does not scan the table. Writes by
+ * other applications are not seen, so the count is reconciled with COUNT(*) in the
+ * background, and a count not reconciled for longer than the allowed staleness is not
+ * used at all
+ *
+ * A COUNT(*) that overlaps a local insert or delete is discarded, because it may or may
+ * not include that change; the next reconciliation tries again
+ */
+class StudentCountTracker {
+    private final long maxStalenessMillis;
+
+    // Guarded by this
+    private boolean loaded;
+    private int count;
+    private long reconciledAt;
+    private long modificationCount;
+
+    /**
+     * Creates a tracker that has not been loaded yet
+     * @param maxStalenessMillis How long after the last COUNT(*) the maintained count may still be used
+     */
+    StudentCountTracker(long maxStalenessMillis) {
+        this.maxStalenessMillis = maxStalenessMillis;
+    }
+
+    /**
+     * Gets the maintained count
+     * @return The count, or -1 if it is not loaded or has not been reconciled within the allowed staleness
+     */
+    synchronized int get() {
+        if (!loaded || System.currentTimeMillis() - reconciledAt > maxStalenessMillis) {
+            return -1;
+        }
+        return count;
+    }
+
+    /**
+     * Gets a token to pass to reconcile(), taken before running COUNT(*)
+     * @return The current modification count
+     */
+    synchronized long getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Replaces the maintained count with the result of COUNT(*)
+     * @param actual The counted rows
+     * @param expectedModificationCount Value of getModificationCount() before the query
+     * @return true if accepted, false if an insert or delete happened meanwhile
+     */
+    synchronized boolean reconcile(int actual, long expectedModificationCount) {
+        if (modificationCount != expectedModificationCount) {
+            return false;
+        }
+        count = actual;
+        loaded = true;
+        reconciledAt = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * Counts committed inserts
+     * @param rows Number of inserted students
+     */
+    synchronized void added(int rows) {
+        modificationCount++;
+        count += rows;
+    }
+
+    /**
+     * Counts committed deletes
+     * @param rows Number of deleted students
+     */
+    synchronized void removed(int rows) {
+        modificationCount++;
+        count -= rows;
+    }
+}
@@ -1,24 +1,103 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Main Application class for Student Database Management System
  * This class provides the user interface and coordinates operations
- * between the Student, DatabaseManager, and InputValidator classes
+ * between the Student, StudentRepository, and InputValidator classes
  */
 public class StudentDatabaseApp {
-    private static DatabaseManager dbManager;
+    private static StudentRepository repository;
+    // Asynchronous write path for adds and deletes, or null when DatabaseConfig.WRITE_BEHIND_ENABLED is off
+    private static WriteBehindBuffer writeBehind;
 
     /**
      * Main method - entry point of the application
+     * Run with "--batch [commands-file|-] [results-file]" to execute a command
+     * file (or stdin) without the interactive menu, or with
+     * "--import students.csv [error-file]" to bulk load a CSV file, or with
+     * "--export students.csv|students.jsonl[.gz]" to write every student to a file.
+     * A leading "--backend mysql|embedded|local|memory" overrides DatabaseConfig.STORAGE_BACKEND.
+     * If MySQL is unreachable the application continues offline with the local store
      */
     public static void main(String[] args) {
-        // Initialize database manager
-        dbManager = new DatabaseManager();
+        String backend = DatabaseConfig.STORAGE_BACKEND;
+        if (args.length > 1 && args[0].equals("--backend")) {
+            backend = args[1];
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+
+        // Every diagnostic is printed to System.out, so in batch mode it is moved to
+        // stderr before anything connects, and stdout carries nothing but result lines
+        PrintStream stdout = System.out;
+        boolean batch = args.length > 0 && args[0].equals("--batch");
+        if (batch) {
+            System.setOut(System.err);
+        }
+
+        // Initialize the student repository
+        repository = StudentRepositoryFactory.create(backend);
+
+        boolean mysql = backend.equalsIgnoreCase(StudentRepositoryFactory.MYSQL);
+        if (mysql && DatabaseConfig.LOCAL_STORE_FALLBACK_ENABLED) {
+            if (repository.isConnectionActive()) {
+                replayOfflineChanges();
+            } else {
+                System.out.println("MySQL is unreachable; continuing offline with the local store in "
+                        + DatabaseConfig.OFFLINE_STORE_DIR + ". Changes are replayed to MySQL on the next start.");
+                repository = StudentRepositoryFactory.openOfflineStore();
+            }
+        }
 
         // Check if database connection is successful
-        if (!dbManager.isConnectionActive()) {
+        if (repository == null || !repository.isConnectionActive()) {
             System.out.println("Failed to establish database connection. Exiting application.");
             return;
         }
 
+        if (DatabaseConfig.WRITE_BEHIND_ENABLED && repository instanceof DatabaseManager) {
+            writeBehind = new WriteBehindBuffer((DatabaseManager) repository);
+        }
+
+        if (batch) {
+            boolean success = runBatchMode(args, stdout);
+            cleanup();
+            if (!success) {
+                System.exit(1);
+            }
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("--import")) {
+            boolean success = runImportMode(args);
+            cleanup();
+            if (!success) {
+                System.exit(1);
+            }
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("--export")) {
+            boolean success = runExportMode(args);
+            cleanup();
+            if (!success) {
+                System.exit(1);
+            }
+            return;
+        }
+
         // Welcome message
         displayWelcomeMessage();
 
@@ -29,6 +108,165 @@ public class StudentDatabaseApp {
         cleanup();
     }
 
+    /**
+     * Replays students added while working offline to the freshly connected repository
+     * Only the fallback store in DatabaseConfig.OFFLINE_STORE_DIR is replayed; the store of
+     * the standalone "local" backend is left alone. Students MySQL rejects (for example
+     * because the email was taken meanwhile) stay in the offline store and are listed
+     */
+    private static void replayOfflineChanges() {
+        Path directory = Path.of(DatabaseConfig.OFFLINE_STORE_DIR);
+        if (!LocalStudentStore.exists(directory)) {
+            return;
+        }
+        try {
+            LocalStudentStore localStore = LocalStudentStore.open(directory);
+            if (localStore.getStudentCount() > 0) {
+                BatchInsertResult result = localStore.replayTo(repository);
+                System.out.println("Replayed " + result.getInsertedCount() + " student(s) added while offline.");
+                for (BatchInsertResult.RejectedRow row : result.getRejectedRows()) {
+                    System.out.println("Kept in offline store: " + row);
+                }
+            }
+            localStore.closeConnection();
+        } catch (IOException e) {
+            System.out.println("Error replaying offline changes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the repository as a DatabaseManager for modes that work on JDBC connections directly
+     * @param mode The command line mode, for the error message
+     * @return The DatabaseManager, or null if the backend is not a database
+     */
+    private static DatabaseManager requireDatabaseManager(String mode) {
+        if (repository instanceof DatabaseManager) {
+            return (DatabaseManager) repository;
+        }
+        System.out.println(mode + " needs a database backend (" + StudentRepositoryFactory.MYSQL
+                + " or " + StudentRepositoryFactory.EMBEDDED + ")");
+        return null;
+    }
+
+    /**
+     * Runs commands from a file or stdin and writes machine-readable results
+     * @param args Command line arguments: --batch [commands-file|-] [results-file]
+     * @param stdout The real standard output, for results when no results file is given
+     * @return true if every command succeeded, false otherwise
+     */
+    private static boolean runBatchMode(String[] args, PrintStream stdout) {
+        DatabaseManager jdbcManager = requireDatabaseManager("--batch");
+        if (jdbcManager == null) {
+            return false;
+        }
+        String input = args.length > 1 ? args[1] : "-";
+        String output = args.length > 2 ? args[2] : null;
+        long start = System.nanoTime();
+
+        try (BufferedReader reader = input.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(input), StandardCharsets.UTF_8)) {
+
+            Writer writer = output == null
+                    ? new OutputStreamWriter(stdout, StandardCharsets.UTF_8)
+                    : Files.newBufferedWriter(Path.of(output), StandardCharsets.UTF_8);
+
+            BatchCommandRunner runner = new BatchCommandRunner(jdbcManager, writer);
+            boolean success;
+            try {
+                success = runner.run(reader);
+            } finally {
+                // Standard output stays open for the JVM; a results file is closed
+                if (output == null) {
+                    writer.flush();
+                } else {
+                    writer.close();
+                }
+            }
+
+            System.err.printf("Processed %d command(s) in %d ms, %d failed%n",
+                    runner.getCommandCount(),
+                    (System.nanoTime() - start) / 1_000_000,
+                    runner.getErrorCount());
+            return success;
+
+        } catch (IOException e) {
+            System.err.println("Error running batch commands: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Imports students from a CSV file, writing rejected rows to an error file
+     * @param args Command line arguments: --import csv-file [error-file]
+     * @return true if every row was imported, false otherwise
+     */
+    private static boolean runImportMode(String[] args) {
+        DatabaseManager jdbcManager = requireDatabaseManager("--import");
+        if (jdbcManager == null) {
+            return false;
+        }
+        if (args.length < 2) {
+            System.out.println("Usage: --import students.csv [error-file]");
+            return false;
+        }
+        Path csvFile = Path.of(args[1]);
+        Path errorFile = Path.of(args.length > 2 ? args[2] : args[1] + ".errors.csv");
+
+        try {
+            CsvImporter.Result result = new CsvImporter(jdbcManager).importFile(csvFile, errorFile);
+            System.out.println("Import finished. " + result);
+            if (result.getRejectedCount() > 0) {
+                System.out.println("Rejected rows were written to " + errorFile);
+            }
+            return result.getRejectedCount() == 0;
+
+        } catch (IOException e) {
+            System.out.println("Error importing CSV file: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Exports every student to a CSV or JSON Lines file, gzip-compressed if the name ends in .gz
+     * @param args Command line arguments: --export file [csv|jsonl]
+     * @return true if the export succeeded, false otherwise
+     */
+    private static boolean runExportMode(String[] args) {
+        DatabaseManager jdbcManager = requireDatabaseManager("--export");
+        if (jdbcManager == null) {
+            return false;
+        }
+        if (args.length < 2) {
+            System.out.println("Usage: --export students.csv|students.jsonl[.gz] [csv|jsonl]");
+            return false;
+        }
+        String fileName = args[1];
+        StudentExporter.Format format;
+        try {
+            format = args.length > 2
+                    ? StudentExporter.Format.valueOf(args[2].toUpperCase())
+                    : StudentExporter.Format.fromFileName(fileName);
+        } catch (IllegalArgumentException e) {
+            format = null;
+        }
+        if (format == null) {
+            System.out.println("Unknown export format, use a .csv or .jsonl file name or pass csv|jsonl");
+            return false;
+        }
+
+        try {
+            StudentExporter.Result result = new StudentExporter(jdbcManager)
+                    .export(Path.of(fileName), format, StudentExporter.isGzipFileName(fileName));
+            System.out.println("Export finished. " + result);
+            return true;
+
+        } catch (IOException | SQLException e) {
+            System.out.println("Error exporting students: " + e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * Displays welcome message and initial information
      */
@@ -40,7 +278,7 @@ public class StudentDatabaseApp {
         System.out.println();
 
         // Display current database statistics
-        int studentCount = dbManager.getStudentCount();
+        int studentCount = repository.getStudentCount();
         System.out.printf("Database Status: Connected | Total Students: %d%n", studentCount);
         System.out.println();
     }
@@ -52,7 +290,7 @@ public class StudentDatabaseApp {
         while (true) {
             try {
                 displayMainMenu();
-                int choice = InputValidator.getMenuChoice("Enter your choice: ", 1, 7);
+                int choice = InputValidator.getMenuChoice("Enter your choice: ", 1, 8);
 
                 System.out.println(); // Add spacing
 
@@ -76,6 +314,9 @@ public class StudentDatabaseApp {
                         deleteStudent();
                         break;
                     case 7:
+                        viewStatistics();
+                        break;
+                    case 8:
                         exitApplication();
                         return;
                 }
@@ -101,7 +342,8 @@ public class StudentDatabaseApp {
         System.out.println("│  4. Search Students by Name                     │");
         System.out.println("│  5. Update Student Information                  │");
         System.out.println("│  6. Delete Student                              │");
-        System.out.println("│  7. Exit Application                            |");
+        System.out.println("│  7. View Statistics                             │");
+        System.out.println("│  8. Exit Application                            |");
         System.out.println("└─────────────────────────────────────────────────┘");
     }
 
@@ -122,7 +364,10 @@ public class StudentDatabaseApp {
             Student student = new Student(name, email, age, course);
 
             // Add to database
-            if (dbManager.addStudent(student)) {
+            if (writesAreQueued()) {
+                reportIfNotWritten(writeBehind.addStudent(student), "add of " + email);
+                System.out.println("✓ Student queued; it is saved with the next flush of the write buffer.");
+            } else if (saveNewStudent(student)) {
                 System.out.println("✓ Student added successfully!");
                 System.out.println("Student Details: " + student);
             } else {
@@ -135,16 +380,80 @@ public class StudentDatabaseApp {
     }
 
     /**
-     * Displays all students
+     * Displays aggregate statistics computed by the storage backend
+     */
+    private static void viewStatistics() {
+        System.out.println("━━━━━━━━━━━━━━━ STUDENT STATISTICS ━━━━━━━━━━━━━━━");
+
+        StudentStatistics statistics = repository.getStatistics();
+        if (statistics == null) {
+            System.out.println("✗ Statistics are not available.");
+            return;
+        }
+        if (statistics.getStudentCount() == 0) {
+            System.out.println("No students found in database.");
+            return;
+        }
+
+        System.out.printf("Total Students: %d%n", statistics.getStudentCount());
+        System.out.printf("Age: youngest %d, oldest %d, average %.1f%n",
+                statistics.getMinAge(), statistics.getMaxAge(), statistics.getAverageAge());
+
+        System.out.println("\nStudents per course:");
+        for (Map.Entry<String, Integer> entry : statistics.getStudentsPerCourse().entrySet()) {
+            System.out.printf("  %-30s %6d%n", entry.getKey(), entry.getValue());
+        }
+
+        System.out.println("\nStudents per age:");
+        for (Map.Entry<Integer, Integer> entry : statistics.getStudentsPerAge().entrySet()) {
+            System.out.printf("  %3d %6d%n", entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Displays all students one page at a time
      */
     private static void viewAllStudents() {
         System.out.println("━━━━━━━━━━━━━━━ VIEW ALL STUDENTS ━━━━━━━━━━━━━━━");
 
         try {
-            dbManager.viewAllStudents();
+            int lastId = 0;
+            int pageNumber = 1;
+
+            while (true) {
+                List<Student> page = repository.getStudentsAfter(lastId, DatabaseConfig.PAGE_SIZE);
+
+                if (page.isEmpty()) {
+                    if (pageNumber == 1) {
+                        System.out.println("No students found in database.");
+                    }
+                    break;
+                }
+
+                System.out.printf("%n==================== STUDENT LIST (Page %d) ====================%n", pageNumber);
+                DatabaseManager.printStudentTableHeader();
+                for (Student student : page) {
+                    DatabaseManager.printStudentTableRow(student);
+                }
+                System.out.println("=======================================================");
+
+                // A short page means there is nothing after it
+                if (page.size() < DatabaseConfig.PAGE_SIZE) {
+                    break;
+                }
+
+                String input = InputValidator.getStringInputWithDefault(
+                        "Press Enter for the next page or 'q' to stop: ", "");
+                if (input.equalsIgnoreCase("q")) {
+                    break;
+                }
+
+                lastId = page.get(page.size() - 1).getId();
+                pageNumber++;
+            }
 
             // Display summary
-            int totalStudents = dbManager.getStudentCount();
+            int totalStudents = repository.getStudentCount();
             System.out.printf("\\nTotal Students in Database: %d%n", totalStudents);
 
         } catch (Exception e) {
@@ -161,7 +470,7 @@ public class StudentDatabaseApp {
         try {
             int id = InputValidator.getIntInput("Enter student ID: ");
 
-            Student student = dbManager.findStudentById(id);
+            Student student = repository.findStudentById(id);
             if (student != null) {
                 System.out.println("\\n✓ Student found:");
                 System.out.println("┌─────────────────────────────────────────────┐");
@@ -185,7 +494,7 @@ public class StudentDatabaseApp {
         try {
             String namePattern = InputValidator.getStringInput("Enter name (or partial name) to search: ");
 
-            var students = dbManager.searchStudentsByName(namePattern);
+            var students = repository.searchStudentsByName(namePattern);
 
             if (students.isEmpty()) {
                 System.out.println("✗ No students found with name containing: " + namePattern);
@@ -213,7 +522,8 @@ public class StudentDatabaseApp {
         try {
             int id = InputValidator.getIntInput("Enter student ID to update: ");
 
-            Student existingStudent = dbManager.findStudentById(id);
+            flushQueuedWrites();
+            Student existingStudent = repository.findStudentById(id);
             if (existingStudent == null) {
                 System.out.println("✗ Student not found with ID: " + id);
                 return;
@@ -247,21 +557,37 @@ public class StudentDatabaseApp {
                     existingStudent.getCourse()
             );
 
-            // Create updated student object
-            Student updatedStudent = new Student(name, email, age, course);
+            // Apply the answers to a copy of the displayed student so only changed fields are saved
+            Student updatedStudent = new Student(existingStudent);
+            updatedStudent.setName(name);
+            updatedStudent.setEmail(email);
+            updatedStudent.setAge(age);
+            updatedStudent.setCourse(course);
+
+            if (!updatedStudent.isDirty()) {
+                System.out.println("No changes made.");
+                return;
+            }
 
             // Confirm update
             boolean confirm = InputValidator.getConfirmation("Do you want to update this student? (yes/no): ");
 
             if (confirm) {
-                if (dbManager.updateStudent(id, updatedStudent)) {
-                    System.out.println("✓ Student updated successfully!");
-
-                    // Show updated details
-                    Student refreshedStudent = dbManager.findStudentById(id);
-                    System.out.println("Updated Details: " + refreshedStudent);
-                } else {
-                    System.out.println("✗ Failed to update student.");
+                // Saved only if nobody else changed the student while it was being edited
+                switch (repository.updateStudent(updatedStudent)) {
+                    case UPDATED:
+                        System.out.println("✓ Student updated successfully!");
+                        System.out.println("Updated Details: " + updatedStudent);
+                        break;
+                    case CONFLICT:
+                        System.out.println("✗ Student was changed by someone else while you were editing. "
+                                + "Please reload it and try again.");
+                        break;
+                    case NOT_FOUND:
+                        System.out.println("✗ Student was deleted while you were editing.");
+                        break;
+                    default:
+                        System.out.println("✗ Failed to update student.");
                 }
             } else {
                 System.out.println("Update cancelled.");
@@ -281,7 +607,7 @@ public class StudentDatabaseApp {
         try {
             int id = InputValidator.getIntInput("Enter student ID to delete: ");
 
-            Student student = dbManager.findStudentById(id);
+            Student student = repository.findStudentById(id);
             if (student == null) {
                 System.out.println("✗ Student not found with ID: " + id);
                 return;
@@ -296,7 +622,10 @@ public class StudentDatabaseApp {
             boolean confirm = InputValidator.getConfirmation("Are you sure you want to delete this student? (yes/no): ");
 
             if (confirm) {
-                if (dbManager.deleteStudent(id)) {
+                if (writesAreQueued()) {
+                    reportIfNotWritten(writeBehind.deleteStudent(id), "delete of student " + id);
+                    System.out.println("✓ Delete queued; it is applied with the next flush of the write buffer.");
+                } else if (removeStudent(id)) {
                     System.out.println("✓ Student deleted successfully!");
                 } else {
                     System.out.println("✗ Failed to delete student.");
@@ -327,14 +656,84 @@ public class StudentDatabaseApp {
         System.out.println("Goodbye! 👋");
     }
 
+    /**
+     * Checks whether console writes are queued rather than waited for
+     * Only IMMEDIATE flushes soon enough to wait on; in the other modes a write can wait
+     * for the flush interval, or until the application exits
+     * @return true if the write-behind buffer is enabled and not in IMMEDIATE mode
+     */
+    private static boolean writesAreQueued() {
+        return writeBehind != null && writeBehind.getFlushMode() != WriteBehindBuffer.FlushMode.IMMEDIATE;
+    }
+
+    /**
+     * Writes out queued adds and deletes before an update
+     * Updates do not go through the write-behind buffer, because the version check needs
+     * the row as it is stored; flushing first keeps them in order with earlier queued writes
+     * @throws InterruptedException if interrupted while waiting for the flush
+     */
+    private static void flushQueuedWrites() throws InterruptedException {
+        if (writeBehind != null) {
+            writeBehind.flush();
+        }
+    }
+
+    /**
+     * Prints a message if a queued write turns out to be rejected when it is flushed
+     * @param write The future returned by the write-behind buffer
+     * @param description What was written, for the message
+     */
+    private static void reportIfNotWritten(CompletableFuture<Boolean> write, String description) {
+        write.whenComplete((written, error) -> {
+            if (error != null) {
+                System.out.println("\n✗ Buffered " + description + " failed: " + error.getMessage());
+            } else if (!written) {
+                System.out.println("\n✗ Buffered " + description + " was rejected by the database.");
+            }
+        });
+    }
+
+    /**
+     * Adds a student, waiting for the write-behind buffer when it is enabled in IMMEDIATE mode
+     * @param student The student to add
+     * @return true once the student is stored, false if it was rejected
+     */
+    private static boolean saveNewStudent(Student student) {
+        if (writeBehind == null) {
+            return repository.addStudent(student);
+        }
+        return writeBehind.addStudent(student).join();
+    }
+
+    /**
+     * Deletes a student, waiting for the write-behind buffer when it is enabled in IMMEDIATE mode
+     * @param id The ID of the student to delete
+     * @return true once the student is deleted, false if it did not exist
+     */
+    private static boolean removeStudent(int id) {
+        if (writeBehind == null) {
+            return repository.deleteStudent(id);
+        }
+        return writeBehind.deleteStudent(id).join();
+    }
+
     /**
      * Cleanup resources before application exit
      */
     private static void cleanup() {
         try {
+            // Write out buffered changes while the connection pool is still open
+            if (writeBehind != null) {
+                int pending = writeBehind.getPendingCount();
+                writeBehind.close();
+                if (pending > 0) {
+                    System.out.println("Flushed " + pending + " buffered write(s).");
+                }
+            }
+
             // Close database connection
-            if (dbManager != null) {
-                dbManager.closeConnection();
+            if (repository != null) {
+                repository.closeConnection();
             }
 
             // Close scanner
@@ -0,0 +1,295 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * StudentExporter class streams the students table to a CSV or JSON Lines file
+ * Rows go straight from a forward-only ResultSet, read DatabaseConfig.FETCH_SIZE rows
+ * per round-trip, into a buffered writer, so memory use does not depend on the size
+ * of the table. Output can be gzip-compressed. The file is written under a temporary
+ * name and only moved into place once the export has finished
+ */
+public class StudentExporter {
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Format is an output file format
+     */
+    public enum Format {
+        CSV,
+        JSONL;
+
+        /**
+         * Picks the format from a file name such as students.csv or students.jsonl.gz
+         * @param fileName The file name
+         * @return The matching format, or null if the extension is not recognised
+         */
+        public static Format fromFileName(String fileName) {
+            String name = stripGzipExtension(fileName.toLowerCase(Locale.ROOT));
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+                return JSONL;
+            }
+            return null;
+        }
+    }
+
+    private final DatabaseManager dbManager;
+
+    /**
+     * Creates an exporter
+     * @param dbManager The connected database manager
+     */
+    public StudentExporter(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    /**
+     * Checks if a file name asks for gzip compression
+     * @param fileName The file name
+     * @return true if it ends with .gz
+     */
+    public static boolean isGzipFileName(String fileName) {
+        return fileName.toLowerCase(Locale.ROOT).endsWith(".gz");
+    }
+
+    private static String stripGzipExtension(String fileName) {
+        return isGzipFileName(fileName) ? fileName.substring(0, fileName.length() - 3) : fileName;
+    }
+
+    /**
+     * Exports every student ordered by ID
+     * @param file The file to create or replace
+     * @param format CSV or JSONL
+     * @param gzip true to gzip-compress the output
+     * @return Counts and timing of the export
+     * @throws IOException if the file cannot be written
+     * @throws SQLException if the table cannot be read
+     */
+    public Result export(Path file, Format format, boolean gzip) throws IOException, SQLException {
+        long start = System.nanoTime();
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        long rows;
+
+        try {
+            OutputStream out = Files.newOutputStream(tempFile);
+            if (gzip) {
+                out = new GZIPOutputStream(out, WRITE_BUFFER_SIZE);
+            }
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8),
+                    WRITE_BUFFER_SIZE)) {
+                rows = writeStudents(writer, format);
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+
+        return new Result(rows, Files.size(file), System.nanoTime() - start);
+    }
+
+    /**
+     * Streams every student to a writer
+     * @param writer Destination; flushed but not closed
+     * @param format CSV or JSONL
+     * @return Number of rows written
+     * @throws IOException if writing fails
+     * @throws SQLException if the table cannot be read
+     */
+    public long writeStudents(Writer writer, Format format) throws IOException, SQLException {
+        long rows = 0;
+
+        try (PooledConnection pc = dbManager.getConnectionPool().borrow("exportStudents")) {
+            PreparedStatement pstmt = pc.prepareStatement(DatabaseConfig.SELECT_ALL_STUDENTS_SQL);
+            pstmt.setFetchSize(DatabaseConfig.FETCH_SIZE);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int idColumn = rs.findColumn(DatabaseConfig.COLUMN_ID);
+                int nameColumn = rs.findColumn(DatabaseConfig.COLUMN_NAME);
+                int emailColumn = rs.findColumn(DatabaseConfig.COLUMN_EMAIL);
+                int ageColumn = rs.findColumn(DatabaseConfig.COLUMN_AGE);
+                int courseColumn = rs.findColumn(DatabaseConfig.COLUMN_COURSE);
+
+                if (format == Format.CSV) {
+                    writer.write("id,name,email,age,course\n");
+                }
+                while (rs.next()) {
+                    int id = rs.getInt(idColumn);
+                    String name = rs.getString(nameColumn);
+                    String email = rs.getString(emailColumn);
+                    int age = rs.getInt(ageColumn);
+                    String course = rs.getString(courseColumn);
+
+                    if (format == Format.CSV) {
+                        writeCsvRow(writer, id, name, email, age, course);
+                    } else {
+                        writeJsonRow(writer, id, name, email, age, course);
+                    }
+                    rows++;
+                }
+            }
+        }
+
+        writer.flush();
+        return rows;
+    }
+
+    private static void writeCsvRow(Writer writer, int id, String name, String email, int age, String course)
+            throws IOException {
+        writer.write(Integer.toString(id));
+        writer.write(',');
+        writeCsvField(writer, name);
+        writer.write(',');
+        writeCsvField(writer, email);
+        writer.write(',');
+        writer.write(Integer.toString(age));
+        writer.write(',');
+        writeCsvField(writer, course);
+        writer.write('\n');
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        int from = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                // Write up to and including the quote, then double it
+                writer.write(value, from, i + 1 - from);
+                writer.write('"');
+                from = i + 1;
+            }
+        }
+        writer.write(value, from, value.length() - from);
+        writer.write('"');
+    }
+
+    private static void writeJsonRow(Writer writer, int id, String name, String email, int age, String course)
+            throws IOException {
+        writer.write("{\"id\":");
+        writer.write(Integer.toString(id));
+        writer.write(",\"name\":");
+        writeJsonString(writer, name);
+        writer.write(",\"email\":");
+        writeJsonString(writer, email);
+        writer.write(",\"age\":");
+        writer.write(Integer.toString(age));
+        writer.write(",\"course\":");
+        writeJsonString(writer, course);
+        writer.write("}\n");
+    }
+
+    private static void writeJsonString(Writer writer, String value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+
+        writer.write('"');
+        int from = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            // Write the plain run before this character, then its escape
+            writer.write(value, from, i - from);
+            from = i + 1;
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    writer.write("\\u00");
+                    writer.write(HEX_DIGITS[c >> 4]);
+                    writer.write(HEX_DIGITS[c & 0xF]);
+            }
+        }
+        writer.write(value, from, value.length() - from);
+        writer.write('"');
+    }
+
+    /**
+     * Result reports the outcome of an export
+     */
+    public static class Result {
+        private final long rows;
+        private final long bytes;
+        private final long elapsedNanos;
+
+        Result(long rows, long bytes, long elapsedNanos) {
+            this.rows = rows;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * Gets the size of the written file
+         * @return File size in bytes (after compression)
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        /**
+         * Gets the export throughput
+         * @return Rows written per second of wall-clock time
+         */
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : rows * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Rows: %d, Bytes: %d in %d ms (%.0f rows/s)",
+                    rows, bytes, getElapsedMillis(), getRowsPerSecond());
+        }
+    }
+}
@@ -0,0 +1,278 @@
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * StudentLog class is the append-only, memory-mapped mutation log of LocalStudentStore
+ * Every change is one record holding the full resulting row (PUT) or the deleted ID
+ * (DELETE), so replaying the log in order, even on top of a snapshot that already
+ * contains some of it, always ends in the same state
+ *
+ * Record layout: int payload length, byte type, payload, int CRC32 of type and payload.
+ * The file is grown in zero-filled steps, so a zero length marks the end of the log.
+ * A record cut short by a crash fails its checksum; replay stops there and the next
+ * append overwrites it
+ *
+ * Not thread-safe; LocalStudentStore serializes all access
+ */
+class StudentLog implements AutoCloseable {
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+
+    // Length, type and checksum around each payload
+    private static final int RECORD_OVERHEAD = 4 + 1 + 4;
+
+    /**
+     * Visitor receives the records found by replay, in log order
+     */
+    interface Visitor {
+        void put(Student student);
+
+        void delete(int id);
+    }
+
+    private final Path file;
+    private final CRC32 crc = new CRC32();
+    private final FileChannel channel;
+    private MappedByteBuffer map;
+
+    /**
+     * Opens or creates a log file and replays its valid records
+     * @param file The log file
+     * @param initialCapacity Bytes mapped at first; the mapping doubles as needed
+     * @param visitor Receives every valid record
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    StudentLog(Path file, int initialCapacity, Visitor visitor) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.map = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), initialCapacity));
+
+        int end = replay(visitor);
+        clearFrom(end);
+        map.position(end);
+    }
+
+    /**
+     * Appends the full current state of a student
+     * @param student The row as stored, with its ID and version
+     * @throws IOException if the log cannot be grown
+     */
+    void appendPut(Student student) throws IOException {
+        byte[] name = student.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] email = student.getEmail().getBytes(StandardCharsets.UTF_8);
+        byte[] course = student.getCourse().getBytes(StandardCharsets.UTF_8);
+        if (Math.max(name.length, Math.max(email.length, course.length)) > 0xFFFF) {
+            throw new IOException("Student field longer than 65535 bytes");
+        }
+        int payloadLength = 3 * 4 + 3 * 2 + name.length + email.length + course.length;
+
+        int start = beginRecord(PUT, payloadLength);
+        map.putInt(student.getId());
+        map.putInt(student.getVersion());
+        map.putInt(student.getAge());
+        putString(name);
+        putString(email);
+        putString(course);
+        endRecord(start, payloadLength);
+    }
+
+    /**
+     * Appends the deletion of a student
+     * @param id The deleted student's ID
+     * @throws IOException if the log cannot be grown
+     */
+    void appendDelete(int id) throws IOException {
+        int start = beginRecord(DELETE, 4);
+        map.putInt(id);
+        endRecord(start, 4);
+    }
+
+    /**
+     * Gets the number of bytes of valid records
+     * @return The append position
+     */
+    int size() {
+        return map.position();
+    }
+
+    /**
+     * Writes appended records through to the storage device
+     */
+    void force() {
+        map.force();
+    }
+
+    /**
+     * Empties the log once its contents are safely in a snapshot
+     * The records are zeroed through the mapping and the file keeps its size, because a
+     * mapped file cannot be truncated or replaced on Windows and Java cannot unmap it.
+     * The first length is cleared first, so a crash part way leaves an empty log
+     */
+    void reset() {
+        int end = map.position();
+        if (end == 0) {
+            return;
+        }
+        map.putInt(0, 0);
+        map.force();
+        for (int i = 4; i < end; i++) {
+            map.put(i, (byte) 0);
+        }
+        map.force();
+        map.position(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        map.force();
+        channel.close();
+    }
+
+    private int beginRecord(byte type, int payloadLength) throws IOException {
+        ensureCapacity(RECORD_OVERHEAD + payloadLength);
+        int start = map.position();
+        // The length is written last, so a record cut short by a crash is never mistaken for a complete one
+        map.putInt(0);
+        map.put(type);
+        return start;
+    }
+
+    private void endRecord(int start, int payloadLength) {
+        crc.reset();
+        crc.update(map.slice(start + 4, 1 + payloadLength));
+        map.putInt((int) crc.getValue());
+        map.putInt(start, payloadLength);
+    }
+
+    private void putString(byte[] bytes) {
+        map.putShort((short) bytes.length);
+        map.put(bytes);
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        // Keep four zero bytes after the last record as the end marker
+        long needed = (long) map.position() + bytes + 4;
+        if (needed <= map.capacity()) {
+            return;
+        }
+        long capacity = map.capacity();
+        while (capacity < needed) {
+            capacity *= 2;
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IOException("Log file " + file + " is full; compact the store");
+        }
+        int position = map.position();
+        map.force();
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        map.position(position);
+    }
+
+    /**
+     * Reads records from the start of the file until the end marker or a damaged record
+     * @return Offset just past the last valid record
+     */
+    private int replay(Visitor visitor) {
+        ByteBuffer buffer = map.duplicate();
+        buffer.position(0);
+
+        while (buffer.remaining() >= RECORD_OVERHEAD) {
+            int start = buffer.position();
+            int payloadLength = buffer.getInt();
+            if (payloadLength <= 0 || payloadLength > buffer.remaining() - 5) {
+                return start;
+            }
+
+            crc.reset();
+            crc.update(buffer.slice(start + 4, 1 + payloadLength));
+            byte type = buffer.get();
+            ByteBuffer payload = buffer.slice(start + 5, payloadLength);
+            buffer.position(start + 5 + payloadLength);
+            if (buffer.getInt() != (int) crc.getValue()) {
+                return start;
+            }
+
+            if (type == PUT) {
+                visitor.put(readStudent(payload));
+            } else if (type == DELETE) {
+                visitor.delete(payload.getInt());
+            } else {
+                return start;
+            }
+        }
+        return buffer.position();
+    }
+
+    /**
+     * Zeroes everything after the last valid record: a record cut short by a crash, or
+     * old records left by a reset that a crash interrupted, so their bytes cannot be
+     * mistaken for records once new ones are appended over them
+     */
+    private void clearFrom(int offset) {
+        // Bytes past the highest offset ever written are still zero from growing the file,
+        // so find that offset from the back, eight bytes at a time, and zero only up to it
+        int dirtyEnd = map.capacity();
+        while (dirtyEnd - 8 >= offset && map.getLong(dirtyEnd - 8) == 0) {
+            dirtyEnd -= 8;
+        }
+        while (dirtyEnd > offset && map.get(dirtyEnd - 1) == 0) {
+            dirtyEnd--;
+        }
+        if (dirtyEnd <= offset) {
+            return;
+        }
+
+        byte[] zeros = new byte[Math.min(dirtyEnd - offset, 64 * 1024)];
+        for (int i = offset; i < dirtyEnd; i += zeros.length) {
+            map.put(i, zeros, 0, Math.min(zeros.length, dirtyEnd - i));
+        }
+    }
+
+    /**
+     * Decodes a PUT payload
+     */
+    static Student readStudent(ByteBuffer payload) {
+        int id = payload.getInt();
+        int version = payload.getInt();
+        int age = payload.getInt();
+        String name = getString(payload);
+        String email = getString(payload);
+        String course = getString(payload);
+        return new Student(id, name, email, age, course, version);
+    }
+
+    /**
+     * Encodes a student in the PUT payload layout, for snapshot files
+     */
+    static void writeStudent(DataOutput out, Student student) throws IOException {
+        out.writeInt(student.getId());
+        out.writeInt(student.getVersion());
+        out.writeInt(student.getAge());
+        writeString(out, student.getName());
+        writeString(out, student.getEmail());
+        writeString(out, student.getCourse());
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("Student field longer than 65535 bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,111 @@
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * StudentRepository interface is the storage-independent set of student operations
+ * DatabaseManager implements it over JDBC (MySQL or an embedded H2 database) and
+ * InMemoryStudentRepository implements it without any database, so the console,
+ * tests and benchmarks can run against any backend. StudentRepositoryFactory picks
+ * the backend by name
+ *
+ * Implementations follow DatabaseManager's conventions: errors are printed and
+ * reported through the return value, and returned students are copies the caller
+ * may modify
+ */
+public interface StudentRepository {
+
+    /**
+     * Adds a new student
+     * @param student The student object to add; its generated ID is set on success
+     * @return true if student was added successfully, false otherwise
+     */
+    boolean addStudent(Student student);
+
+    /**
+     * Adds many students, reporting rejected rows (such as duplicate emails) individually
+     * @param students The students to add; generated IDs are set on each inserted student
+     * @return Result with the inserted count and any rejected rows
+     */
+    BatchInsertResult addStudents(Iterable<Student> students);
+
+    /**
+     * Retrieves all students
+     * @return List of all students ordered by ID
+     */
+    List<Student> getAllStudents();
+
+    /**
+     * Streams all students ordered by ID to the given action, one at a time
+     * @param action Callback invoked for each student
+     * @return Number of students passed to the action
+     */
+    int forEachStudent(Consumer<? super Student> action);
+
+    /**
+     * Gets the page of students that follows a given ID (keyset pagination)
+     * @param lastId ID of the last student on the previous page (0 for the first page)
+     * @param pageSize Maximum number of students to return
+     * @return Students with an ID greater than lastId, ordered by ID
+     */
+    List<Student> getStudentsAfter(int lastId, int pageSize);
+
+    /**
+     * Finds a student by their ID
+     * @param id The student ID to search for
+     * @return Student object if found, null otherwise
+     */
+    Student findStudentById(int id);
+
+    /**
+     * Overwrites all of a student's information
+     * @param id The ID of the student to update
+     * @param student The updated student information
+     * @return true if update was successful, false otherwise
+     */
+    boolean updateStudent(int id, Student student);
+
+    /**
+     * Saves the fields changed through setters, only if nobody has changed the student since it was read
+     * @param student A student read from this repository and then modified through its setters;
+     *                on success its version is advanced and its changed fields are cleared
+     * @return UPDATED, UNCHANGED, CONFLICT, NOT_FOUND or FAILED
+     */
+    UpdateResult updateStudent(Student student);
+
+    /**
+     * Deletes a student
+     * @param id The ID of the student to delete
+     * @return true if deletion was successful, false otherwise
+     */
+    boolean deleteStudent(int id);
+
+    /**
+     * Searches students by name (case-insensitive partial match)
+     * @param namePattern The name pattern to search for
+     * @return List of students matching the pattern, ordered by name
+     */
+    List<Student> searchStudentsByName(String namePattern);
+
+    /**
+     * Gets the total count of students
+     * @return Number of students
+     */
+    int getStudentCount();
+
+    /**
+     * Gets aggregate statistics: count, age range and average, students per course and per age
+     * @return The statistics, or null if they could not be computed
+     */
+    StudentStatistics getStatistics();
+
+    /**
+     * Checks if the repository can serve requests
+     * @return true if it is open, false otherwise
+     */
+    boolean isConnectionActive();
+
+    /**
+     * Releases the repository's resources
+     */
+    void closeConnection();
+}
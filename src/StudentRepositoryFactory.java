@@ -0,0 +1,80 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * StudentRepositoryFactory class creates the StudentRepository for a storage backend
+ * "mysql" connects to the server configured in DatabaseConfig, "embedded" opens an H2
+ * file database in MySQL mode (no server needed, the H2 jar must be on the classpath),
+ * "local" opens the write-ahead-logged LocalStudentStore and "memory" keeps everything
+ * on the heap
+ */
+public final class StudentRepositoryFactory {
+    public static final String MYSQL = "mysql";
+    public static final String EMBEDDED = "embedded";
+    public static final String LOCAL = "local";
+    public static final String MEMORY = "memory";
+
+    private StudentRepositoryFactory() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Creates the repository configured by DatabaseConfig.STORAGE_BACKEND
+     * @return The repository, or null if the backend name is unknown or the local store cannot be opened
+     */
+    public static StudentRepository create() {
+        return create(DatabaseConfig.STORAGE_BACKEND);
+    }
+
+    /**
+     * Creates a repository for a backend name
+     * Check isConnectionActive() on the result before using it
+     * @param backend "mysql", "embedded", "local" or "memory"
+     * @return The repository, or null if the backend name is unknown or the local store cannot be opened
+     */
+    public static StudentRepository create(String backend) {
+        switch (backend.toLowerCase(Locale.ROOT)) {
+            case MYSQL:
+                return new DatabaseManager();
+            case EMBEDDED:
+                return new DatabaseManager(DatabaseConfig.EMBEDDED_JDBC_DRIVER, DatabaseConfig.EMBEDDED_DB_URL,
+                        DatabaseConfig.EMBEDDED_USERNAME, DatabaseConfig.EMBEDDED_PASSWORD);
+            case LOCAL:
+                return openLocalStore();
+            case MEMORY:
+                return new InMemoryStudentRepository();
+            default:
+                System.out.println("Unknown storage backend: " + backend
+                        + " (expected " + MYSQL + ", " + EMBEDDED + ", " + LOCAL + " or " + MEMORY + ")");
+                return null;
+        }
+    }
+
+    /**
+     * Opens the local store in DatabaseConfig.LOCAL_STORE_DIR
+     * @return The store, or null if it cannot be opened
+     */
+    public static LocalStudentStore openLocalStore() {
+        try {
+            return LocalStudentStore.open();
+        } catch (IOException e) {
+            System.out.println("Local store could not be opened: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Opens the local store in DatabaseConfig.OFFLINE_STORE_DIR, which buffers changes
+     * made while MySQL is unreachable
+     * @return The store, or null if it cannot be opened
+     */
+    public static LocalStudentStore openOfflineStore() {
+        try {
+            return LocalStudentStore.open(Path.of(DatabaseConfig.OFFLINE_STORE_DIR));
+        } catch (IOException e) {
+            System.out.println("Offline store could not be opened: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+/**
+ * StudentSnapshot class is a read-only, column-oriented copy of the students table
+ * Ids and ages are kept in int arrays and each course is dictionary-encoded as an
+ * int code, so a snapshot of N students costs about 12 bytes per row instead of one
+ * Student object per row. Queries walk the arrays and do not allocate per row
+ *
+ * Courses are compared ignoring case, like MySQL's default collation and
+ * StatisticsCounters, so "CS" and "cs" share one code, named by the first spelling read
+ */
+public class StudentSnapshot {
+    private final int size;
+    private final int[] ids;
+    private final int[] ages;
+    private final int[] courseCodes;
+    private final String[] courseDictionary;
+    private final Map<String, Integer> courseCodesByName;
+    private final long createdAt;
+
+    private StudentSnapshot(int size, int[] ids, int[] ages, int[] courseCodes, String[] courseDictionary,
+                            Map<String, Integer> courseCodesByName) {
+        this.size = size;
+        this.ids = ids;
+        this.ages = ages;
+        this.courseCodes = courseCodes;
+        this.courseDictionary = courseDictionary;
+        this.courseCodesByName = courseCodesByName;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Builds a snapshot in one pass over a result set with id, age and course columns
+     * @param rs The result set to read; it is consumed but not closed
+     * @return The snapshot
+     * @throws SQLException if reading the result set fails
+     */
+    static StudentSnapshot fromResultSet(ResultSet rs) throws SQLException {
+        int idColumn = rs.findColumn(DatabaseConfig.COLUMN_ID);
+        int ageColumn = rs.findColumn(DatabaseConfig.COLUMN_AGE);
+        int courseColumn = rs.findColumn(DatabaseConfig.COLUMN_COURSE);
+
+        int capacity = 1024;
+        int[] ids = new int[capacity];
+        int[] ages = new int[capacity];
+        int[] courseCodes = new int[capacity];
+        Map<String, Integer> dictionary = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        int size = 0;
+
+        while (rs.next()) {
+            if (size == capacity) {
+                capacity *= 2;
+                ids = Arrays.copyOf(ids, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+                courseCodes = Arrays.copyOf(courseCodes, capacity);
+            }
+            ids[size] = rs.getInt(idColumn);
+            ages[size] = rs.getInt(ageColumn);
+            courseCodes[size] = dictionary.computeIfAbsent(rs.getString(courseColumn), k -> dictionary.size());
+            size++;
+        }
+
+        String[] courses = new String[dictionary.size()];
+        for (Map.Entry<String, Integer> entry : dictionary.entrySet()) {
+            courses[entry.getValue()] = entry.getKey();
+        }
+
+        // Trim the arrays so the snapshot holds no spare capacity
+        return new StudentSnapshot(size,
+                Arrays.copyOf(ids, size),
+                Arrays.copyOf(ages, size),
+                Arrays.copyOf(courseCodes, size),
+                courses,
+                dictionary);
+    }
+
+    /**
+     * Gets the number of students in the snapshot
+     * @return Row count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the time the snapshot was built
+     * @return Creation time in epoch milliseconds
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    public int getAge(int row) {
+        return ages[row];
+    }
+
+    public String getCourse(int row) {
+        return courseDictionary[courseCodes[row]];
+    }
+
+    /**
+     * Gets the number of distinct courses
+     * @return Size of the course dictionary
+     */
+    public int getCourseCount() {
+        return courseDictionary.length;
+    }
+
+    /**
+     * Gets the course name for a dictionary code
+     * @param code Course code between 0 and getCourseCount() - 1
+     * @return Course name
+     */
+    public String getCourseName(int code) {
+        return courseDictionary[code];
+    }
+
+    /**
+     * Gets the dictionary code of a course
+     * @param course Course name, in any case
+     * @return Course code, or -1 if no student takes the course
+     */
+    public int getCourseCode(String course) {
+        Integer code = courseCodesByName.get(course);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Counts students whose age is within the given range
+     * @param minAge Minimum age (inclusive)
+     * @param maxAge Maximum age (inclusive)
+     * @return Number of matching students
+     */
+    public int countByAgeRange(int minAge, int maxAge) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int age = ages[i];
+            if (age >= minAge && age <= maxAge) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Passes the id of every student whose age is within the given range to the action
+     * @param minAge Minimum age (inclusive)
+     * @param maxAge Maximum age (inclusive)
+     * @param idAction Callback receiving each matching student id
+     */
+    public void forEachIdInAgeRange(int minAge, int maxAge, IntConsumer idAction) {
+        for (int i = 0; i < size; i++) {
+            int age = ages[i];
+            if (age >= minAge && age <= maxAge) {
+                idAction.accept(ids[i]);
+            }
+        }
+    }
+
+    /**
+     * Counts students taking the given course
+     * @param course Course name
+     * @return Number of students in the course
+     */
+    public int countByCourse(String course) {
+        int code = getCourseCode(course);
+        if (code < 0) {
+            return 0;
+        }
+
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (courseCodes[i] == code) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts students per course
+     * @return Array indexed by course code; use getCourseName to label each entry
+     */
+    public int[] getCourseBreakdown() {
+        int[] counts = new int[courseDictionary.length];
+        for (int i = 0; i < size; i++) {
+            counts[courseCodes[i]]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Counts students per age
+     * @return Array indexed by age - DatabaseConfig.MIN_AGE, covering MIN_AGE to MAX_AGE
+     */
+    public int[] getAgeDistribution() {
+        int[] counts = new int[DatabaseConfig.MAX_AGE - DatabaseConfig.MIN_AGE + 1];
+        for (int i = 0; i < size; i++) {
+            int bucket = ages[i] - DatabaseConfig.MIN_AGE;
+            if (bucket >= 0 && bucket < counts.length) {
+                counts[bucket]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the average age of all students
+     * @return Average age, or 0.0 for an empty snapshot
+     */
+    public double getAverageAge() {
+        if (size == 0) {
+            return 0.0;
+        }
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += ages[i];
+        }
+        return (double) total / size;
+    }
+
+    /**
+     * Estimates the heap used by the column arrays
+     * @return Approximate size in bytes, excluding the course strings
+     */
+    public long getEstimatedColumnBytes() {
+        return (long) size * Integer.BYTES * 3;
+    }
+}
@@ -0,0 +1,109 @@
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * StudentStatistics class holds aggregate figures about all students
+ * DatabaseManager computes them with GROUP BY queries in the database, or takes them
+ * from its incrementally maintained counters, so no student rows are transferred.
+ * Instances are immutable
+ */
+public class StudentStatistics {
+    private final int studentCount;
+    private final long totalAge;
+    private final SortedMap<String, Integer> studentsPerCourse;
+    private final SortedMap<Integer, Integer> studentsPerAge;
+    private final long computedAt;
+
+    /**
+     * Creates statistics from per-course and per-age counts
+     * @param studentCount Number of students
+     * @param totalAge Sum of all ages
+     * @param studentsPerCourse Students per course; copied, with course names compared case-insensitively
+     * @param studentsPerAge Students per age; copied
+     */
+    StudentStatistics(int studentCount, long totalAge, Map<String, Integer> studentsPerCourse,
+                      Map<Integer, Integer> studentsPerAge) {
+        this.studentCount = studentCount;
+        this.totalAge = totalAge;
+        SortedMap<String, Integer> courses = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, Integer> entry : studentsPerCourse.entrySet()) {
+            // A case-sensitive database reports "CS" and "cs" separately; count them as one course
+            courses.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+        this.studentsPerCourse = Collections.unmodifiableSortedMap(courses);
+        this.studentsPerAge = Collections.unmodifiableSortedMap(new TreeMap<>(studentsPerAge));
+        this.computedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the number of students
+     * @return Student count
+     */
+    public int getStudentCount() {
+        return studentCount;
+    }
+
+    /**
+     * Gets the youngest student's age
+     * @return Minimum age, or 0 if there are no students
+     */
+    public int getMinAge() {
+        return studentsPerAge.isEmpty() ? 0 : studentsPerAge.firstKey();
+    }
+
+    /**
+     * Gets the oldest student's age
+     * @return Maximum age, or 0 if there are no students
+     */
+    public int getMaxAge() {
+        return studentsPerAge.isEmpty() ? 0 : studentsPerAge.lastKey();
+    }
+
+    /**
+     * Gets the average age of all students
+     * @return Average age, or 0.0 if there are no students
+     */
+    public double getAverageAge() {
+        return studentCount == 0 ? 0.0 : (double) totalAge / studentCount;
+    }
+
+    /**
+     * Gets the sum of all students' ages
+     * @return Total age
+     */
+    public long getTotalAge() {
+        return totalAge;
+    }
+
+    /**
+     * Gets the number of students per course
+     * @return Read-only map ordered by course name
+     */
+    public SortedMap<String, Integer> getStudentsPerCourse() {
+        return studentsPerCourse;
+    }
+
+    /**
+     * Gets the number of students per age
+     * @return Read-only map ordered by age; ages without students are left out
+     */
+    public SortedMap<Integer, Integer> getStudentsPerAge() {
+        return studentsPerAge;
+    }
+
+    /**
+     * Gets the time these figures were taken
+     * @return Epoch milliseconds
+     */
+    public long getComputedAt() {
+        return computedAt;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Students: %d | Age min %d, max %d, avg %.1f | Courses: %d",
+                studentCount, getMinAge(), getMaxAge(), getAverageAge(), studentsPerCourse.size());
+    }
+}
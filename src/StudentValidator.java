@@ -0,0 +1,240 @@
+/**
+ * StudentValidator class checks student fields without regular expressions or console I/O
+ * The checks are hand-written scanners over CharSequence, so they work on Strings,
+ * StringBuilders or buffers sliced from a file without copying, and validating a
+ * record allocates nothing. Errors are reported through a caller-owned
+ * ValidationResult that can be reused for every record. The rules are the ones the
+ * interactive prompts have always applied; InputValidator delegates here
+ */
+public final class StudentValidator {
+
+    /**
+     * Field identifies a validated student field and its error message
+     */
+    public enum Field {
+        NAME("Name should contain only letters, spaces, hyphens, and apostrophes (2-50 characters)"),
+        EMAIL("Please enter a valid email address (e.g., user@example.com)"),
+        AGE("Age must be between " + DatabaseConfig.MIN_AGE + " and " + DatabaseConfig.MAX_AGE + " years"),
+        COURSE("Course name must be between 2 and 50 characters");
+
+        private final String message;
+
+        Field(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private static final int MIN_NAME_LENGTH = DatabaseConfig.MIN_NAME_LENGTH;
+    private static final int MAX_NAME_LENGTH = DatabaseConfig.MAX_NAME_LENGTH;
+    private static final int MIN_COURSE_LENGTH = 2;
+    private static final int MAX_COURSE_LENGTH = 50;
+
+    private StudentValidator() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Validates every field of a student
+     * @param student The student to check
+     * @param result Receives the outcome; reset before use
+     * @return true if all fields are valid
+     */
+    public static boolean validate(Student student, ValidationResult result) {
+        return validate(student.getName(), student.getEmail(), student.getAge(), student.getCourse(), result);
+    }
+
+    /**
+     * Validates already-parsed student fields
+     * @param name The name
+     * @param email The email address
+     * @param age The age
+     * @param course The course name
+     * @param result Receives the outcome; reset before use
+     * @return true if all fields are valid
+     */
+    public static boolean validate(CharSequence name, CharSequence email, int age, CharSequence course,
+                                   ValidationResult result) {
+        result.reset();
+        result.setAge(age);
+        checkName(name, result);
+        checkEmail(email, result);
+        if (!isValidAge(age)) {
+            result.fail(Field.AGE);
+        }
+        checkCourse(course, result);
+        return result.isValid();
+    }
+
+    /**
+     * Validates raw text fields, such as the columns of an import file
+     * The parsed age is available from result.getAge() when it is valid
+     * @param name The name
+     * @param email The email address
+     * @param age The age as decimal digits
+     * @param course The course name
+     * @param result Receives the outcome; reset before use
+     * @return true if all fields are valid
+     */
+    public static boolean validate(CharSequence name, CharSequence email, CharSequence age, CharSequence course,
+                                   ValidationResult result) {
+        result.reset();
+        checkName(name, result);
+        checkEmail(email, result);
+        int parsedAge = parseAge(age);
+        if (parsedAge < 0 || !isValidAge(parsedAge)) {
+            result.fail(Field.AGE);
+        } else {
+            result.setAge(parsedAge);
+        }
+        checkCourse(course, result);
+        return result.isValid();
+    }
+
+    private static void checkName(CharSequence name, ValidationResult result) {
+        if (!isValidName(name)) {
+            result.fail(Field.NAME);
+        }
+    }
+
+    private static void checkEmail(CharSequence email, ValidationResult result) {
+        if (!isValidEmail(email)) {
+            result.fail(Field.EMAIL);
+        }
+    }
+
+    private static void checkCourse(CharSequence course, ValidationResult result) {
+        if (!isValidCourse(course)) {
+            result.fail(Field.COURSE);
+        }
+    }
+
+    /**
+     * Checks a name: 2 to 50 ASCII letters, whitespace, apostrophes or hyphens
+     * @param name The name to check
+     * @return true if valid, false otherwise
+     */
+    public static boolean isValidName(CharSequence name) {
+        if (name == null || name.length() < MIN_NAME_LENGTH || name.length() > MAX_NAME_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!isAsciiLetter(c) && !isWhitespace(c) && c != '\'' && c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks an email address: local@domain where the local part uses letters, digits
+     * and + _ . -, and the domain uses letters, digits, dots and hyphens and ends in a
+     * dot followed by at least two letters
+     * @param email The email to check
+     * @return true if valid, false otherwise
+     */
+    public static boolean isValidEmail(CharSequence email) {
+        if (email == null) {
+            return false;
+        }
+        int length = email.length();
+
+        // Local part up to the only '@'
+        int at = 0;
+        while (at < length && isLocalPartChar(email.charAt(at))) {
+            at++;
+        }
+        if (at == 0 || at == length || email.charAt(at) != '@') {
+            return false;
+        }
+
+        // Domain: allowed characters only, remembering the last dot
+        int lastDot = -1;
+        for (int i = at + 1; i < length; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                lastDot = i;
+            } else if (!isAsciiLetter(c) && !isAsciiDigit(c) && c != '-') {
+                return false;
+            }
+        }
+        // At least one character before the last dot and two or more letters after it
+        if (lastDot <= at + 1 || length - lastDot - 1 < 2) {
+            return false;
+        }
+        for (int i = lastDot + 1; i < length; i++) {
+            if (!isAsciiLetter(email.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if an age is within DatabaseConfig.MIN_AGE and DatabaseConfig.MAX_AGE
+     * @param age The age to check
+     * @return true if valid, false otherwise
+     */
+    public static boolean isValidAge(int age) {
+        return age >= DatabaseConfig.MIN_AGE && age <= DatabaseConfig.MAX_AGE;
+    }
+
+    /**
+     * Checks if a course name has an allowed length (2 to 50 characters)
+     * @param course The course name to check
+     * @return true if valid, false otherwise
+     */
+    public static boolean isValidCourse(CharSequence course) {
+        return course != null && course.length() >= MIN_COURSE_LENGTH && course.length() <= MAX_COURSE_LENGTH;
+    }
+
+    /**
+     * Parses a non-negative decimal age without allocating
+     * @param text Digits, optionally preceded by '+'
+     * @return The value, or -1 if the text is not a number of at most three digits
+     */
+    public static int parseAge(CharSequence text) {
+        if (text == null) {
+            return -1;
+        }
+        int start = text.length() > 0 && text.charAt(0) == '+' ? 1 : 0;
+        int length = text.length() - start;
+        if (length == 0 || length > 3) {
+            // Ages have at most three digits; longer numbers are out of range anyway
+            return -1;
+        }
+
+        int value = 0;
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!isAsciiDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isLocalPartChar(char c) {
+        return isAsciiLetter(c) || isAsciiDigit(c) || c == '+' || c == '_' || c == '.' || c == '-';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Matches the regex class \s: space, tab, newline, vertical tab, form feed, carriage return
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
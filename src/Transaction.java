@@ -0,0 +1,187 @@
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transaction class is the unit of work handed to DatabaseManager.inTransaction
+ * All operations run on one pooled connection with autocommit off and are committed
+ * together, so a read followed by a write sees no interleaved changes (subject to the
+ * isolation level) and several writes pay for a single commit. Unlike the DatabaseManager
+ * methods these let SQLException propagate: any failure rolls the whole unit back.
+ * Reads bypass the student cache; the cache and name index are refreshed once the
+ * transaction has committed
+ *
+ * A Transaction is only valid inside the work it was passed to
+ */
+public class Transaction {
+
+    /**
+     * Work is the body of a transaction
+     * It may run more than once when the transaction is retried after a deadlock or
+     * serialization failure, so it should not have side effects outside the database
+     * @param <T> Result type
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T execute(Transaction tx) throws SQLException;
+    }
+
+    private final DatabaseManager dbManager;
+    private final PooledConnection pc;
+    private final List<Student> inserted = new ArrayList<>();
+    private final Set<Integer> changedIds = new LinkedHashSet<>();
+    // Version and changed fields of students saved with updateStudent(Student), put back if the transaction rolls back
+    private final Map<Student, int[]> originalStates = new IdentityHashMap<>();
+    private int deletedCount;
+    private boolean active = true;
+
+    Transaction(DatabaseManager dbManager, PooledConnection pc) {
+        this.dbManager = dbManager;
+        this.pc = pc;
+    }
+
+    /**
+     * Inserts a student
+     * @param student The student to add; its generated ID is set on success
+     * @return true if a row was inserted
+     * @throws SQLException if the insert fails, for example on a duplicate email
+     */
+    public boolean addStudent(Student student) throws SQLException {
+        checkActive();
+        int rowsAffected = dbManager.insertStudent(pc, student);
+        if (rowsAffected > 0 && student.getId() > 0) {
+            inserted.add(student);
+        }
+        return rowsAffected > 0;
+    }
+
+    /**
+     * Reads a student as this transaction sees it
+     * @param id The student ID
+     * @return The student, or null if not found
+     * @throws SQLException if the query fails
+     */
+    public Student findStudentById(int id) throws SQLException {
+        checkActive();
+        return dbManager.selectStudentById(pc, id);
+    }
+
+    /**
+     * Reads a student and locks its row until the transaction ends (SELECT ... FOR UPDATE),
+     * so no other transaction can change it between this read and a later update
+     * @param id The student ID
+     * @return The student, or null if not found
+     * @throws SQLException if the query fails or the lock cannot be acquired
+     */
+    public Student findStudentByIdForUpdate(int id) throws SQLException {
+        checkActive();
+        return dbManager.selectStudentByIdForUpdate(pc, id);
+    }
+
+    /**
+     * Overwrites a student's information
+     * @param id The ID of the student to update
+     * @param student The updated student information
+     * @return true if a row was updated
+     * @throws SQLException if the update fails
+     */
+    public boolean updateStudent(int id, Student student) throws SQLException {
+        checkActive();
+        int rowsAffected = dbManager.updateStudentRow(pc, id, student);
+        if (rowsAffected > 0) {
+            changedIds.add(id);
+        }
+        return rowsAffected > 0;
+    }
+
+    /**
+     * Saves the fields changed through setters, only if the row still has the student's version
+     * @param student The modified student; on success its version is advanced and its changed
+     *                fields are cleared, and both are put back if the transaction later rolls back
+     * @return UPDATED, UNCHANGED if no field was changed, CONFLICT if the row was changed by
+     *         someone else, or NOT_FOUND
+     * @throws SQLException if the update fails
+     */
+    public UpdateResult updateStudent(Student student) throws SQLException {
+        checkActive();
+        int[] state = {student.getVersion(), student.getDirtyFields()};
+        UpdateResult result = dbManager.updateStudentIfVersion(pc, student);
+        if (result == UpdateResult.UPDATED) {
+            originalStates.putIfAbsent(student, state);
+            changedIds.add(student.getId());
+        }
+        return result;
+    }
+
+    /**
+     * Deletes a student
+     * @param id The ID of the student to delete
+     * @return true if a row was deleted
+     * @throws SQLException if the delete fails
+     */
+    public boolean deleteStudent(int id) throws SQLException {
+        checkActive();
+        int rowsAffected = dbManager.deleteStudentRow(pc, id);
+        if (rowsAffected > 0) {
+            changedIds.add(id);
+            deletedCount += rowsAffected;
+        }
+        return rowsAffected > 0;
+    }
+
+    /**
+     * Finds students whose name contains the given text, always with SQL
+     * @param namePattern The name pattern to search for
+     * @return Matching students ordered by name
+     * @throws SQLException if the query fails
+     */
+    public List<Student> searchStudentsByName(String namePattern) throws SQLException {
+        checkActive();
+        return dbManager.selectStudentsByName(pc, namePattern);
+    }
+
+    /**
+     * Gets the pooled connection, for statements not covered by the methods above
+     * Do not commit, roll back or change autocommit on it
+     * @return The connection this transaction runs on
+     */
+    public PooledConnection getConnection() {
+        checkActive();
+        return pc;
+    }
+
+    private void checkActive() {
+        if (!active) {
+            throw new IllegalStateException("Transaction has already ended");
+        }
+    }
+
+    // Used by DatabaseManager.inTransaction
+
+    void end() {
+        active = false;
+    }
+
+    void restoreUpdatedStudents() {
+        for (Map.Entry<Student, int[]> entry : originalStates.entrySet()) {
+            entry.getKey().setVersion(entry.getValue()[0]);
+            entry.getKey().setDirtyFields(entry.getValue()[1]);
+        }
+    }
+
+    List<Student> getInserted() {
+        return inserted;
+    }
+
+    Set<Integer> getChangedIds() {
+        return changedIds;
+    }
+
+    int getDeletedCount() {
+        return deletedCount;
+    }
+}
@@ -0,0 +1,15 @@
+/**
+ * UpdateResult enum reports the outcome of a version-checked student update
+ */
+public enum UpdateResult {
+    // The changed columns were written and the student's version advanced
+    UPDATED,
+    // No field was changed, so nothing was sent to the database
+    UNCHANGED,
+    // Someone else changed the row since it was read; reload it and try again
+    CONFLICT,
+    // The row no longer exists
+    NOT_FOUND,
+    // The database rejected the update (such as a duplicate email); the error has been printed
+    FAILED
+}
@@ -0,0 +1,86 @@
+/**
+ * ValidationResult class collects the outcome of StudentValidator checks
+ * It holds only primitives, so one instance can be reset and reused for every record
+ * of a bulk load without creating garbage. Error messages are constants on
+ * StudentValidator.Field and are only looked up when a caller reports them
+ */
+public class ValidationResult {
+    private static final StudentValidator.Field[] FIELDS = StudentValidator.Field.values();
+
+    private int errorMask;
+    private int age;
+
+    /**
+     * Clears all errors so the result can be reused
+     */
+    public void reset() {
+        errorMask = 0;
+        age = 0;
+    }
+
+    void fail(StudentValidator.Field field) {
+        errorMask |= 1 << field.ordinal();
+    }
+
+    void setAge(int age) {
+        this.age = age;
+    }
+
+    /**
+     * Checks if every field passed
+     * @return true if no errors were recorded
+     */
+    public boolean isValid() {
+        return errorMask == 0;
+    }
+
+    /**
+     * Checks if a field failed
+     * @param field The field to check
+     * @return true if the field is invalid
+     */
+    public boolean hasError(StudentValidator.Field field) {
+        return (errorMask & (1 << field.ordinal())) != 0;
+    }
+
+    public int getErrorCount() {
+        return Integer.bitCount(errorMask);
+    }
+
+    /**
+     * Gets the first invalid field in declaration order
+     * @return The field, or null if the result is valid
+     */
+    public StudentValidator.Field getFirstError() {
+        if (errorMask == 0) {
+            return null;
+        }
+        return FIELDS[Integer.numberOfTrailingZeros(errorMask)];
+    }
+
+    /**
+     * Gets the age that was validated
+     * @return The parsed or given age; 0 if raw text did not parse
+     */
+    public int getAge() {
+        return age;
+    }
+
+    /**
+     * Builds a message listing every failed field
+     * Allocates, so call it only when reporting
+     * @return The messages joined with "; ", or an empty string if valid
+     */
+    public String describeErrors() {
+        StringBuilder sb = new StringBuilder();
+        for (StudentValidator.Field field : FIELDS) {
+            if (hasError(field)) {
+                if (sb.length() > 0) {
+                    sb.append("; ");
+                }
+                sb.append(field.getMessage());
+            }
+        }
+        return sb.toString();
+    }
+}
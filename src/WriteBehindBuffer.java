@@ -0,0 +1,537 @@
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * WriteBehindBuffer class is an asynchronous write path in front of DatabaseManager
+ * Adds, updates and deletes are put into a bounded queue and return at once with a
+ * future; a background flusher applies them in JDBC batches, one transaction per
+ * batch, and completes each future once its write is committed. When the queue is
+ * full, writers wait for the flusher
+ *
+ * Writes to the same student are coalesced while they wait: a second update replaces
+ * the first, and a delete replaces a pending update. Each future completes with the
+ * result of the write that was finally executed. Writes to one student are applied
+ * in the order they were made; writes to different students may share a batch in
+ * any order
+ *
+ * Reads through DatabaseManager do not see pending writes; call flush() first when
+ * they must
+ */
+public class WriteBehindBuffer implements AutoCloseable {
+
+    /**
+     * FlushMode decides when the flusher writes pending changes, trading latency
+     * and durability for larger batches
+     */
+    public enum FlushMode {
+        // Flush as soon as the flusher is free; writes made during a flush share the next commit
+        IMMEDIATE,
+        // Flush when the oldest pending write reaches the flush interval, or when a batch is full
+        INTERVAL,
+        // Flush only when the queue is full, on flush() and on close()
+        ON_SHUTDOWN
+    }
+
+    private enum Kind { INSERT, UPDATE, DELETE }
+
+    private final DatabaseManager dbManager;
+    private final FlushMode mode;
+    private final long intervalNanos;
+    private final int batchSize;
+    private final int capacity;
+    private final Thread flusher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition flushNeeded = lock.newCondition();
+    private final Condition drained = lock.newCondition();
+
+    // Guarded by lock
+    private final ArrayDeque<PendingWrite> queue = new ArrayDeque<>();
+    private final Map<Integer, PendingWrite> latestById = new HashMap<>();
+    private long oldestPendingNanos;
+    private boolean flushRequested;
+    private boolean flushing;
+    private boolean closed;
+
+    /**
+     * Creates a buffer using the DatabaseConfig write-behind settings
+     * @param dbManager The connected database manager to write through
+     */
+    public WriteBehindBuffer(DatabaseManager dbManager) {
+        this(dbManager, DatabaseConfig.WRITE_BEHIND_FLUSH_MODE, DatabaseConfig.WRITE_BEHIND_FLUSH_INTERVAL_MILLIS,
+                DatabaseConfig.BATCH_SIZE, DatabaseConfig.WRITE_BEHIND_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates a buffer
+     * @param dbManager The connected database manager to write through
+     * @param mode When pending writes are flushed
+     * @param intervalMillis Maximum age of a pending write in INTERVAL mode
+     * @param batchSize Maximum number of writes per batch and transaction
+     * @param capacity Maximum number of pending writes before writers wait
+     */
+    public WriteBehindBuffer(DatabaseManager dbManager, FlushMode mode, long intervalMillis, int batchSize,
+                             int capacity) {
+        if (batchSize <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("batchSize and capacity must be positive");
+        }
+        if (!dbManager.isConnectionActive()) {
+            throw new IllegalArgumentException("dbManager is not connected");
+        }
+        this.dbManager = dbManager;
+        this.mode = mode;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        this.flusher = startFlusher(this);
+    }
+
+    private static Thread startFlusher(WriteBehindBuffer buffer) {
+        Thread thread = new Thread(buffer::runFlusher, "write-behind-flusher");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Queues the insert of a new student
+     * @param student The student to add; its generated ID is set before the future completes
+     * @return Future completed with true once the student is stored, or false if it was
+     *         rejected (for example a duplicate email)
+     */
+    public CompletableFuture<Boolean> addStudent(Student student) {
+        return enqueue(Kind.INSERT, 0, student);
+    }
+
+    /**
+     * Queues an overwrite of all of a student's information
+     * A pending update of the same student is replaced by this one
+     * @param id The ID of the student to update
+     * @param student The updated student information, copied when queued
+     * @return Future completed with true once the update is stored, or false if no
+     *         student has that ID or the update was rejected
+     */
+    public CompletableFuture<Boolean> updateStudent(int id, Student student) {
+        return enqueue(Kind.UPDATE, id, new Student(student));
+    }
+
+    /**
+     * Queues the deletion of a student
+     * A pending update of the same student is dropped in favour of the delete
+     * @param id The ID of the student to delete
+     * @return Future completed with true once the student is deleted, or false if no student has that ID
+     */
+    public CompletableFuture<Boolean> deleteStudent(int id) {
+        return enqueue(Kind.DELETE, id, null);
+    }
+
+    /**
+     * Writes every pending change and waits until it is committed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void flush() throws InterruptedException {
+        lock.lock();
+        try {
+            flushRequested = true;
+            flushNeeded.signal();
+            while (!queue.isEmpty() || flushing) {
+                drained.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets when pending writes are flushed
+     * @return The flush mode
+     */
+    public FlushMode getFlushMode() {
+        return mode;
+    }
+
+    /**
+     * Gets the number of writes waiting to be flushed
+     * @return Pending write count, after coalescing
+     */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting writes, flushes everything pending and stops the flusher
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            flushNeeded.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<Boolean> enqueue(Kind kind, int id, Student student) {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (kind != Kind.INSERT && coalesce(kind, id, student, future)) {
+                return future;
+            }
+            while (queue.size() >= capacity && !closed) {
+                notFull.awaitUninterruptibly();
+            }
+            if (closed) {
+                future.completeExceptionally(new IllegalStateException("Write-behind buffer is closed"));
+                return future;
+            }
+
+            PendingWrite write = new PendingWrite(kind, id, student, future);
+            boolean first = queue.isEmpty();
+            if (first) {
+                oldestPendingNanos = System.nanoTime();
+            }
+            queue.add(write);
+            if (kind != Kind.INSERT) {
+                latestById.put(id, write);
+            }
+            // In INTERVAL mode the flusher waits without a timeout while the queue is empty,
+            // so the first write wakes it to start timing the interval
+            if (mode == FlushMode.IMMEDIATE || (mode == FlushMode.INTERVAL && first)
+                    || queue.size() >= batchSize || queue.size() >= capacity) {
+                flushNeeded.signal();
+            }
+            return future;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Folds a write into a pending write of the same student when the outcome is the same
+     * @return true if the write was coalesced and needs no queue entry of its own
+     */
+    private boolean coalesce(Kind kind, int id, Student student, CompletableFuture<Boolean> future) {
+        PendingWrite pending = latestById.get(id);
+        if (pending == null || pending.kind != Kind.UPDATE || closed) {
+            return false;
+        }
+        // Update after update keeps the latest values; delete after update only needs the delete
+        pending.kind = kind;
+        pending.student = student;
+        pending.futures.add(future);
+        return true;
+    }
+
+    private void runFlusher() {
+        List<PendingWrite> batch = new ArrayList<>(Math.min(batchSize, 1024));
+        Set<Integer> batchIds = new HashSet<>();
+
+        while (true) {
+            lock.lock();
+            try {
+                while (!readyToFlush()) {
+                    if (closed && queue.isEmpty()) {
+                        drained.signalAll();
+                        return;
+                    }
+                    if (queue.isEmpty()) {
+                        flushRequested = false;
+                        drained.signalAll();
+                    }
+                    long waitNanos = mode == FlushMode.INTERVAL && !queue.isEmpty()
+                            ? oldestPendingNanos + intervalNanos - System.nanoTime()
+                            : Long.MAX_VALUE;
+                    flushNeeded.awaitNanos(waitNanos);
+                }
+                takeBatch(batch, batchIds);
+                flushing = true;
+                notFull.signalAll();
+            } catch (InterruptedException e) {
+                // Only close() stops the flusher; pending futures must still complete
+                continue;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                applyBatch(batch);
+            } finally {
+                batch.clear();
+                batchIds.clear();
+                lock.lock();
+                try {
+                    flushing = false;
+                    drained.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private boolean readyToFlush() {
+        if (queue.isEmpty()) {
+            return false;
+        }
+        if (closed || flushRequested || mode == FlushMode.IMMEDIATE
+                || queue.size() >= batchSize || queue.size() >= capacity) {
+            return true;
+        }
+        return mode == FlushMode.INTERVAL && System.nanoTime() - oldestPendingNanos >= intervalNanos;
+    }
+
+    /**
+     * Moves up to batchSize writes from the queue into the batch, stopping before a second
+     * write to the same student so writes to one student are applied in order
+     */
+    private void takeBatch(List<PendingWrite> batch, Set<Integer> batchIds) {
+        while (batch.size() < batchSize && !queue.isEmpty()) {
+            PendingWrite write = queue.peek();
+            if (write.kind != Kind.INSERT && !batchIds.add(write.id)) {
+                break;
+            }
+            queue.poll();
+            batch.add(write);
+            if (latestById.get(write.id) == write) {
+                latestById.remove(write.id);
+            }
+        }
+        oldestPendingNanos = System.nanoTime();
+    }
+
+    /**
+     * Applies a batch in one transaction, completing the futures once it has committed
+     * A batch the database rejects is rolled back and retried row by row, so a bad
+     * row (such as a duplicate email) fails alone. If the row-by-row pass is rolled
+     * back as well, by a deadlock or lock wait timeout, every future in the batch fails
+     */
+    private void applyBatch(List<PendingWrite> batch) {
+        boolean[] results = new boolean[batch.size()];
+
+        try (PooledConnection pc = dbManager.getConnectionPool().borrow("writeBehind")) {
+            Connection connection = pc.getConnection();
+            connection.setAutoCommit(false);
+            try {
+                executeBatches(pc, batch, results);
+            } catch (BatchUpdateException e) {
+                connection.rollback();
+                executeRowByRow(pc, batch, results);
+            }
+            connection.commit();
+            connection.setAutoCommit(true);
+
+        } catch (SQLException e) {
+            System.out.println("Error flushing buffered writes: " + e.getMessage());
+            for (PendingWrite write : batch) {
+                // The transaction was rolled back, so any ID handed out by it no longer exists
+                if (write.kind == Kind.INSERT) {
+                    write.student.setId(0);
+                }
+                write.fail(e);
+            }
+            return;
+        }
+
+        List<Student> inserted = new ArrayList<>();
+        Set<Integer> changedIds = new HashSet<>();
+        int deleted = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            if (results[i] && write.kind == Kind.INSERT) {
+                inserted.add(write.student);
+            } else if (results[i]) {
+                changedIds.add(write.id);
+                if (write.kind == Kind.DELETE) {
+                    deleted++;
+                }
+            }
+        }
+        dbManager.studentsInserted(inserted);
+        dbManager.studentsDeleted(deleted);
+        dbManager.studentsChanged(changedIds);
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).complete(results[i]);
+        }
+    }
+
+    private static void executeBatches(PooledConnection pc, List<PendingWrite> batch, boolean[] results)
+            throws SQLException {
+        PreparedStatement insert = null;
+        PreparedStatement update = null;
+        PreparedStatement delete = null;
+
+        try {
+            for (PendingWrite write : batch) {
+                switch (write.kind) {
+                    case INSERT:
+                        if (insert == null) {
+                            insert = pc.prepareStatement(DatabaseConfig.INSERT_STUDENT_SQL,
+                                    Statement.RETURN_GENERATED_KEYS);
+                        }
+                        DatabaseManager.bindStudent(insert, write.student);
+                        insert.addBatch();
+                        break;
+                    case UPDATE:
+                        if (update == null) {
+                            update = pc.prepareStatement(DatabaseConfig.UPDATE_STUDENT_SQL);
+                        }
+                        DatabaseManager.bindStudent(update, write.student);
+                        update.setInt(5, write.id);
+                        update.addBatch();
+                        break;
+                    default:
+                        if (delete == null) {
+                            delete = pc.prepareStatement(DatabaseConfig.DELETE_STUDENT_SQL);
+                        }
+                        delete.setInt(1, write.id);
+                        delete.addBatch();
+                        break;
+                }
+            }
+
+            int[] insertCounts = insert == null ? new int[0] : insert.executeBatch();
+            int[] updateCounts = update == null ? new int[0] : update.executeBatch();
+            int[] deleteCounts = delete == null ? new int[0] : delete.executeBatch();
+
+            ResultSet keys = insert == null ? null : insert.getGeneratedKeys();
+            try {
+                int inserts = 0;
+                int updates = 0;
+                int deletes = 0;
+                for (int i = 0; i < batch.size(); i++) {
+                    PendingWrite write = batch.get(i);
+                    if (write.kind == Kind.INSERT) {
+                        results[i] = succeeded(insertCounts[inserts++]);
+                        if (results[i] && keys.next()) {
+                            write.student.setId(keys.getInt(1));
+                        }
+                    } else if (write.kind == Kind.UPDATE) {
+                        results[i] = succeeded(updateCounts[updates++]);
+                    } else {
+                        results[i] = succeeded(deleteCounts[deletes++]);
+                    }
+                }
+            } finally {
+                if (keys != null) {
+                    keys.close();
+                }
+            }
+
+        } catch (SQLException e) {
+            // The statements are cached, so drop whatever is left of their batches
+            for (PreparedStatement pstmt : new PreparedStatement[]{insert, update, delete}) {
+                try {
+                    if (pstmt != null) {
+                        pstmt.clearBatch();
+                    }
+                } catch (SQLException clearError) {
+                    e.addSuppressed(clearError);
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Rewritten batches report SUCCESS_NO_INFO instead of a row count
+     */
+    private static boolean succeeded(int count) {
+        return count > 0 || count == Statement.SUCCESS_NO_INFO;
+    }
+
+    private void executeRowByRow(PooledConnection pc, List<PendingWrite> batch, boolean[] results)
+            throws SQLException {
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            try {
+                switch (write.kind) {
+                    case INSERT:
+                        write.student.setId(0);
+                        results[i] = dbManager.insertStudent(pc, write.student) > 0;
+                        break;
+                    case UPDATE:
+                        results[i] = dbManager.updateStudentRow(pc, write.id, write.student) > 0;
+                        break;
+                    default:
+                        results[i] = dbManager.deleteStudentRow(pc, write.id) > 0;
+                        break;
+                }
+            } catch (SQLException e) {
+                // A deadlock or lock wait timeout takes the earlier writes with it, so the batch fails
+                if (DatabaseManager.rollsBackTransaction(e)) {
+                    throw e;
+                }
+                // Any other failed statement only rolls back itself
+                results[i] = false;
+                if (e.getErrorCode() == DatabaseManager.DUPLICATE_ENTRY_ERROR_CODE) {
+                    System.out.println("Error: Email already exists in database!");
+                } else {
+                    System.out.println("Error writing student: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * PendingWrite is one queued change and the futures waiting for it
+     */
+    private static class PendingWrite {
+        Kind kind;
+        final int id;
+        Student student;
+        final List<CompletableFuture<Boolean>> futures = new ArrayList<>(1);
+
+        PendingWrite(Kind kind, int id, Student student, CompletableFuture<Boolean> future) {
+            this.kind = kind;
+            this.id = id;
+            this.student = student;
+            futures.add(future);
+        }
+
+        void complete(boolean result) {
+            for (CompletableFuture<Boolean> future : futures) {
+                future.complete(result);
+            }
+        }
+
+        void fail(Throwable error) {
+            for (CompletableFuture<Boolean> future : futures) {
+                future.completeExceptionally(error);
+            }
+        }
+    }
+}
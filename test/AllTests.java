@@ -0,0 +1,13 @@
+/**
+ * AllTests class runs every test class in test/
+ *
+ * Usage: java -cp "out:h2.jar" AllTests
+ */
+public class AllTests {
+    public static void main(String[] args) {
+        StudentCacheTest.runAll();
+        StudentLogTest.runAll();
+        WriteBehindBufferTest.runAll();
+        TestSupport.finish();
+    }
+}
@@ -0,0 +1,170 @@
+import java.sql.PreparedStatement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * StudentCacheTest class checks StudentCache on its own and behind DatabaseManager
+ * The randomized case compares the cache with a LinkedHashMap in access order, using few
+ * enough IDs that probe sequences collide constantly, so backward-shift deletion and LRU
+ * eviction are exercised on every run
+ */
+public class StudentCacheTest {
+
+    public static void main(String[] args) {
+        runAll();
+        TestSupport.finish();
+    }
+
+    static void runAll() {
+        TestSupport.test("cache returns copies", StudentCacheTest::returnsCopies);
+        TestSupport.test("cache evicts the least recently used student", StudentCacheTest::evictsLeastRecentlyUsed);
+        TestSupport.test("cache expires entries after their TTL", StudentCacheTest::expiresEntries);
+        TestSupport.test("cache skips a load that raced an invalidation", StudentCacheTest::skipsStaleLoad);
+        TestSupport.test("cache matches an LRU model under random operations", StudentCacheTest::matchesModel);
+        TestSupport.test("DatabaseManager writes invalidate the cache", StudentCacheTest::writesInvalidate);
+        TestSupport.test("a version conflict drops the stale cached row", StudentCacheTest::conflictDropsStaleRow);
+    }
+
+    private static Student student(int id, String name) {
+        return new Student(id, name, "s" + id + "@example.com", 20, "CS");
+    }
+
+    private static void returnsCopies() {
+        StudentCache cache = new StudentCache(4, 0);
+        Student original = student(1, "Ann");
+        cache.put(original);
+        original.setName("Changed after put");
+
+        Student first = cache.get(1);
+        TestSupport.checkEquals("Ann", first.getName(), "cached name");
+        first.setName("Changed after get");
+        TestSupport.checkEquals("Ann", cache.get(1).getName(), "cached name after changing a returned copy");
+    }
+
+    private static void evictsLeastRecentlyUsed() {
+        StudentCache cache = new StudentCache(3, 0);
+        cache.put(student(1, "One"));
+        cache.put(student(2, "Two"));
+        cache.put(student(3, "Three"));
+        cache.get(1);
+        cache.put(student(4, "Four"));
+
+        TestSupport.check(cache.get(2) == null, "student 2 should have been evicted");
+        TestSupport.check(cache.get(1) != null && cache.get(3) != null && cache.get(4) != null,
+                "students 1, 3 and 4 should be cached");
+        TestSupport.checkEquals(3, cache.size(), "size");
+        TestSupport.checkEquals(1L, cache.getEvictions(), "evictions");
+    }
+
+    private static void expiresEntries() throws InterruptedException {
+        StudentCache cache = new StudentCache(4, 50);
+        cache.put(student(1, "Ann"));
+        TestSupport.check(cache.get(1) != null, "entry should be cached before its TTL");
+        Thread.sleep(120);
+        TestSupport.check(cache.get(1) == null, "entry should expire after its TTL");
+        TestSupport.checkEquals(0, cache.size(), "size after expiry");
+    }
+
+    private static void skipsStaleLoad() {
+        StudentCache cache = new StudentCache(4, 0);
+
+        long stamp = cache.beginLoad();
+        cache.putIfFresh(student(1, "Ann"), stamp);
+        TestSupport.check(cache.get(1) != null, "a load with no invalidation meanwhile should be cached");
+
+        stamp = cache.beginLoad();
+        cache.invalidate(2);
+        cache.putIfFresh(student(2, "Old Bob"), stamp);
+        TestSupport.check(cache.get(2) == null, "a load that raced an invalidation should not be cached");
+
+        stamp = cache.beginLoad();
+        cache.clear();
+        cache.putIfFresh(student(3, "Old Cid"), stamp);
+        TestSupport.check(cache.get(3) == null, "a load that raced clear() should not be cached");
+    }
+
+    private static void matchesModel() {
+        int capacity = 16;
+        StudentCache cache = new StudentCache(capacity, 0);
+        Map<Integer, String> model = new LinkedHashMap<>(capacity, 0.75f, true);
+        Random random = new Random(42);
+
+        for (int step = 0; step < 200_000; step++) {
+            int id = random.nextInt(capacity * 3);
+            int operation = random.nextInt(10);
+            if (operation < 4) {
+                String name = "Name " + step;
+                cache.put(student(id, name));
+                model.put(id, name);
+                if (model.size() > capacity) {
+                    Integer eldest = model.keySet().iterator().next();
+                    model.remove(eldest);
+                }
+            } else if (operation < 8) {
+                Student cached = cache.get(id);
+                String expected = model.get(id);
+                TestSupport.checkEquals(expected, cached == null ? null : cached.getName(),
+                        "get(" + id + ") at step " + step);
+            } else {
+                cache.invalidate(id);
+                model.remove(id);
+            }
+            TestSupport.checkEquals(model.size(), cache.size(), "size at step " + step);
+        }
+
+        // Every remaining key must still be reachable through its probe sequence
+        for (Map.Entry<Integer, String> entry : model.entrySet()) {
+            Student cached = cache.get(entry.getKey());
+            TestSupport.checkEquals(entry.getValue(), cached == null ? null : cached.getName(),
+                    "final get(" + entry.getKey() + ")");
+        }
+    }
+
+    private static void writesInvalidate() {
+        DatabaseManager dbManager = TestSupport.newH2Database();
+        try {
+            Student added = new Student("Ann Lee", "ann@example.com", 20, "CS");
+            TestSupport.check(dbManager.addStudent(added), "add");
+            int id = added.getId();
+            TestSupport.checkEquals("CS", dbManager.findStudentById(id).getCourse(), "course after add");
+
+            TestSupport.check(dbManager.updateStudent(id, new Student("Ann Lee", "ann@example.com", 21, "Math")),
+                    "update");
+            TestSupport.checkEquals("Math", dbManager.findStudentById(id).getCourse(), "course after update");
+
+            TestSupport.check(dbManager.deleteStudent(id), "delete");
+            TestSupport.check(dbManager.findStudentById(id) == null, "deleted student should not be found");
+        } finally {
+            dbManager.closeConnection();
+        }
+    }
+
+    private static void conflictDropsStaleRow() throws Exception {
+        DatabaseManager dbManager = TestSupport.newH2Database();
+        try {
+            Student added = new Student("Ann Lee", "ann@example.com", 20, "CS");
+            dbManager.addStudent(added);
+            int id = added.getId();
+            Student edited = dbManager.findStudentById(id);
+
+            // Another client changes the row behind the cache's back
+            try (PooledConnection pc = dbManager.getConnectionPool().borrow("test");
+                 PreparedStatement pstmt = pc.getConnection().prepareStatement(
+                         "UPDATE students SET age = 30, version = version + 1 WHERE id = ?")) {
+                pstmt.setInt(1, id);
+                pstmt.executeUpdate();
+            }
+
+            edited.setCourse("Math");
+            TestSupport.checkEquals(UpdateResult.CONFLICT, dbManager.updateStudent(edited), "stale update");
+
+            Student reloaded = dbManager.findStudentById(id);
+            TestSupport.checkEquals(30, reloaded.getAge(), "reloaded age");
+            reloaded.setCourse("Math");
+            TestSupport.checkEquals(UpdateResult.UPDATED, dbManager.updateStudent(reloaded), "retried update");
+        } finally {
+            dbManager.closeConnection();
+        }
+    }
+}
@@ -0,0 +1,276 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * StudentLogTest class checks StudentLog recovery and the LocalStudentStore built on it
+ * Crashes are simulated by editing the log file between opens: cutting a record short,
+ * damaging its checksum, or leaving a reset half done. Every case works in its own
+ * temporary directory, removed afterwards
+ */
+public class StudentLogTest {
+    private static final int SMALL_LOG_BYTES = 256;
+
+    public static void main(String[] args) {
+        runAll();
+        TestSupport.finish();
+    }
+
+    static void runAll() {
+        TestSupport.test("log replays puts and deletes in order", StudentLogTest::replaysInOrder);
+        TestSupport.test("log grows past its initial mapping", StudentLogTest::growsMapping);
+        TestSupport.test("log drops a record cut short by a crash", StudentLogTest::dropsTornRecord);
+        TestSupport.test("log drops a record with a damaged checksum", StudentLogTest::dropsDamagedRecord);
+        TestSupport.test("log does not revive records after an interrupted reset", StudentLogTest::interruptedReset);
+        TestSupport.test("log starts empty after reset", StudentLogTest::resetEmptiesLog);
+        TestSupport.test("log and snapshot reject oversized fields", StudentLogTest::rejectsOversizedFields);
+        TestSupport.test("store keeps its state across close and reopen", StudentLogTest::storeSurvivesReopen);
+        TestSupport.test("store replays to H2 and keeps rejected rows", StudentLogTest::storeReplaysToDatabase);
+    }
+
+    /**
+     * Collects replayed records as "put:id:name" and "delete:id" strings
+     */
+    private static final class Recorder implements StudentLog.Visitor {
+        final List<String> records = new ArrayList<>();
+
+        @Override
+        public void put(Student student) {
+            records.add("put:" + student.getId() + ":" + student.getName());
+        }
+
+        @Override
+        public void delete(int id) {
+            records.add("delete:" + id);
+        }
+    }
+
+    private interface DirectoryCase {
+        void run(Path directory) throws Exception;
+    }
+
+    private static void inTemporaryDirectory(DirectoryCase testCase) throws Exception {
+        Path directory = Files.createTempDirectory("student-log-test");
+        try {
+            testCase.run(directory);
+        } finally {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private static Student student(int id, String name) {
+        return new Student(id, name, "s" + id + "@example.com", 20, "CS", 0);
+    }
+
+    private static List<String> replay(Path file) throws IOException {
+        Recorder recorder = new Recorder();
+        new StudentLog(file, SMALL_LOG_BYTES, recorder).close();
+        return recorder.records;
+    }
+
+    /**
+     * Overwrites bytes of a closed log file in place
+     */
+    private static void overwrite(Path file, long position, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), position);
+        }
+    }
+
+    private static void replaysInOrder() throws Exception {
+        inTemporaryDirectory(directory -> {
+            Path file = directory.resolve("students.log");
+            try (StudentLog log = new StudentLog(file, SMALL_LOG_BYTES, new Recorder())) {
+                log.appendPut(student(1, "Ann"));
+                log.appendPut(student(2, "Bob"));
+                log.appendDelete(1);
+                log.appendPut(student(2, "Bobby"));
+            }
+            TestSupport.checkEquals(List.of("put:1:Ann", "put:2:Bob", "delete:1", "put:2:Bobby"), replay(file),
+                    "replayed records");
+        });
+    }
+
+    private static void growsMapping() throws Exception {
+        inTemporaryDirectory(directory -> {
+            Path file = directory.resolve("students.log");
+            List<String> expected = new ArrayList<>();
+            try (StudentLog log = new StudentLog(file, SMALL_LOG_BYTES, new Recorder())) {
+                for (int id = 1; id <= 500; id++) {
+                    log.appendPut(student(id, "Student " + id));
+                    expected.add("put:" + id + ":Student " + id);
+                }
+            }
+            TestSupport.check(Files.size(file) > SMALL_LOG_BYTES, "log file should have grown");
+            TestSupport.checkEquals(expected, replay(file), "replayed records");
+        });
+    }
+
+    private static void dropsTornRecord() throws Exception {
+        inTemporaryDirectory(directory -> {
+            Path file = directory.resolve("students.log");
+            int lastStart;
+            int end;
+            try (StudentLog log = new StudentLog(file, SMALL_LOG_BYTES, new Recorder())) {
+                log.appendPut(student(1, "Ann"));
+                lastStart = log.size();
+                log.appendPut(student(2, "Bob"));
+                end = log.size();
+            }
+            // A crash part way through the second record left its last bytes unwritten
+            overwrite(file, lastStart + 9, new byte[end - lastStart - 9]);
+            TestSupport.checkEquals(List.of("put:1:Ann"), replay(file), "records after the crash");
+
+            // The next append overwrites the torn record
+            try (StudentLog log = new StudentLog(file, SMALL_LOG_BYTES, new Recorder())) {
+                TestSupport.checkEquals(lastStart, log.size(), "append position after recovery");
+                log.appendPut(student(3, "Cid"));
+            }
+            TestSupport.checkEquals(List.of("put:1:Ann", "put:3:Cid"), replay(file), "records after appending");
+        });
+    }
+
+    private static void dropsDamagedRecord() throws Exception {
+        inTemporaryDirectory(directory -> {
+            Path file = directory.resolve("students.log");
+            int lastStart;
+            try (StudentLog log = new StudentLog(file, SMALL_LOG_BYTES, new Recorder())) {
+                log.appendPut(student(1, "Ann"));
+                lastStart = log.size();
+                log.appendPut(student(2, "Bob"));
+                log.appendPut(student(3, "Cid"));
+            }
+            // Flip the first byte of the second record's payload
+            ByteBuffer original = ByteBuffer.wrap(Files.readAllBytes(file));
+            overwrite(file, lastStart + 5, new byte[]{(byte) ~original.get(lastStart + 5)});
+
+            TestSupport.checkEquals(List.of("put:1:Ann"), replay(file), "records before the damaged one");
+        });
+    }
+
+    private static void interruptedReset() throws Exception {
+        inTemporaryDirectory(directory -> {
+            Path file = directory.resolve("students.log");
+            try (StudentLog log = new StudentLog(file, SMALL_LOG_BYTES, new Recorder())) {
+                log.appendPut(student(1, "Ann"));
+                log.appendPut(student(2, "Bob"));
+                log.appendPut(student(3, "Cid"));
+            }
+            // reset() clears the first length before anything else; crash right after it
+            overwrite(file, 0, new byte[4]);
+            TestSupport.checkEquals(List.of(), replay(file), "records after the interrupted reset");
+
+            // A record of exactly the first one's size must not bring the old second record back
+            try (StudentLog log = new StudentLog(file, SMALL_LOG_BYTES, new Recorder())) {
+                log.appendPut(student(4, "Dee"));
+            }
+            TestSupport.checkEquals(List.of("put:4:Dee"), replay(file), "records after appending");
+        });
+    }
+
+    private static void resetEmptiesLog() throws Exception {
+        inTemporaryDirectory(directory -> {
+            Path file = directory.resolve("students.log");
+            try (StudentLog log = new StudentLog(file, SMALL_LOG_BYTES, new Recorder())) {
+                log.appendPut(student(1, "Ann"));
+                log.appendPut(student(2, "Bob"));
+                log.reset();
+                TestSupport.checkEquals(0, log.size(), "size after reset");
+                log.appendPut(student(3, "Cid"));
+            }
+            TestSupport.checkEquals(List.of("put:3:Cid"), replay(file), "records after reset");
+        });
+    }
+
+    private static void rejectsOversizedFields() throws Exception {
+        inTemporaryDirectory(directory -> {
+            Student oversized = student(1, "x".repeat(70_000));
+            try (StudentLog log = new StudentLog(directory.resolve("students.log"), SMALL_LOG_BYTES, new Recorder())) {
+                try {
+                    log.appendPut(oversized);
+                    TestSupport.check(false, "appendPut should reject a 70000 byte name");
+                } catch (IOException expected) {
+                    TestSupport.checkEquals(0, log.size(), "size after the rejected append");
+                }
+            }
+            try {
+                StudentLog.writeStudent(new DataOutputStream(new ByteArrayOutputStream()), oversized);
+                TestSupport.check(false, "writeStudent should reject a 70000 byte name");
+            } catch (IOException expected) {
+                // The snapshot is never written with a wrapped length
+            }
+        });
+    }
+
+    private static void storeSurvivesReopen() throws Exception {
+        inTemporaryDirectory(directory -> {
+            LocalStudentStore store = LocalStudentStore.open(directory);
+            Student ann = new Student("Ann Lee", "ann@example.com", 20, "CS");
+            Student bob = new Student("Bob Ray", "bob@example.com", 21, "EE");
+            TestSupport.check(store.addStudent(ann) && store.addStudent(bob), "adds");
+            TestSupport.check(!store.addStudent(new Student("Ann Again", "ann@example.com", 22, "CS")),
+                    "duplicate email should be rejected");
+            TestSupport.check(store.updateStudent(bob.getId(), new Student("Bob Ray", "bob@example.com", 22, "Math")),
+                    "update");
+            TestSupport.check(store.deleteStudent(ann.getId()), "delete");
+            store.closeConnection();
+
+            LocalStudentStore reopened = LocalStudentStore.open(directory);
+            try {
+                TestSupport.checkEquals(1, reopened.getStudentCount(), "count after reopen");
+                TestSupport.check(reopened.findStudentById(ann.getId()) == null, "deleted student after reopen");
+                TestSupport.checkEquals("Math", reopened.findStudentById(bob.getId()).getCourse(),
+                        "updated course after reopen");
+
+                Student cid = new Student("Cid Moe", "cid@example.com", 23, "CS");
+                reopened.addStudent(cid);
+                TestSupport.check(cid.getId() > bob.getId(), "IDs keep increasing after reopen");
+            } finally {
+                reopened.closeConnection();
+            }
+        });
+    }
+
+    private static void storeReplaysToDatabase() throws Exception {
+        inTemporaryDirectory(directory -> {
+            DatabaseManager dbManager = TestSupport.newH2Database();
+            LocalStudentStore store = LocalStudentStore.open(directory);
+            try {
+                dbManager.addStudent(new Student("Taken", "taken@example.com", 30, "CS"));
+                store.addStudent(new Student("Ann Lee", "ann@example.com", 20, "CS"));
+                store.addStudent(new Student("Bob Ray", "taken@example.com", 21, "EE"));
+                store.addStudent(new Student("Cid Moe", "cid@example.com", 22, "CS"));
+
+                BatchInsertResult result = store.replayTo(dbManager);
+                TestSupport.checkEquals(2, result.getInsertedCount(), "inserted");
+                TestSupport.checkEquals(1, result.getRejectedRows().size(), "rejected");
+                TestSupport.checkEquals(3, dbManager.getStudentCount(), "database count");
+                TestSupport.checkEquals(1, store.getStudentCount(), "rows left in the store");
+                TestSupport.checkEquals("Bob Ray", store.getAllStudents().get(0).getName(), "row left in the store");
+            } finally {
+                store.closeConnection();
+                dbManager.closeConnection();
+            }
+
+            LocalStudentStore reopened = LocalStudentStore.open(directory);
+            try {
+                TestSupport.checkEquals(1, reopened.getStudentCount(), "rows left after reopen");
+            } finally {
+                reopened.closeConnection();
+            }
+        });
+    }
+}
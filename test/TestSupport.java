@@ -0,0 +1,76 @@
+import java.util.Objects;
+
+/**
+ * TestSupport class holds the small assertion helpers shared by the tests in test/
+ * The project has no build tool, so like bench/StudentBenchmark each test class is a plain
+ * main() that runs its cases in order; AllTests runs every class and exits with status 1
+ * if any case failed. Database cases use an in-process H2 database in MySQL mode, so the
+ * H2 jar must be on the classpath
+ */
+final class TestSupport {
+
+    /**
+     * A single test case
+     */
+    interface TestCase {
+        void run() throws Exception;
+    }
+
+    private static int passed;
+    private static int failed;
+    private static int databases;
+
+    private TestSupport() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Runs one case and prints whether it passed
+     * @param name Name printed with the result
+     * @param testCase The case to run
+     */
+    static void test(String name, TestCase testCase) {
+        try {
+            testCase.run();
+            passed++;
+            System.out.println("PASS " + name);
+        } catch (Throwable t) {
+            failed++;
+            System.out.println("FAIL " + name + ": " + t);
+            t.printStackTrace(System.out);
+        }
+    }
+
+    static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    static void checkEquals(Object expected, Object actual, String message) {
+        if (!Objects.equals(expected, actual)) {
+            throw new AssertionError(message + ": expected <" + expected + "> but was <" + actual + ">");
+        }
+    }
+
+    /**
+     * Opens a DatabaseManager on a new, empty in-memory H2 database
+     * @return The connected manager; close it with closeConnection()
+     */
+    static DatabaseManager newH2Database() {
+        String url = "jdbc:h2:mem:student_test_" + (++databases) + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        DatabaseManager dbManager = new DatabaseManager(url, "sa", "");
+        check(dbManager.isConnectionActive(), "H2 database did not connect; is the H2 jar on the classpath?");
+        return dbManager;
+    }
+
+    /**
+     * Prints the totals and ends the JVM with status 1 if any case failed
+     */
+    static void finish() {
+        System.out.printf("%n%d passed, %d failed%n", passed, failed);
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+}
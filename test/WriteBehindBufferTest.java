@@ -0,0 +1,233 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WriteBehindBufferTest class checks coalescing, ordering and failure handling of WriteBehindBuffer on H2
+ * Most cases use ON_SHUTDOWN mode, so nothing is written until the case calls flush() and
+ * the queue can be inspected first. A deadlock is simulated with an H2 trigger that
+ * fails inserts of one email with MySQL's deadlock error
+ */
+public class WriteBehindBufferTest {
+    private static final String DEADLOCK_EMAIL = "deadlock@example.com";
+
+    public static void main(String[] args) {
+        runAll();
+        TestSupport.finish();
+    }
+
+    static void runAll() {
+        TestSupport.test("buffer inserts students and sets their IDs", WriteBehindBufferTest::insertsStudents);
+        TestSupport.test("buffer coalesces updates of one student", WriteBehindBufferTest::coalescesUpdates);
+        TestSupport.test("buffer lets a delete replace a pending update", WriteBehindBufferTest::deleteReplacesUpdate);
+        TestSupport.test("buffer applies writes to one student in order", WriteBehindBufferTest::keepsOrder);
+        TestSupport.test("buffer fails only the row the database rejects", WriteBehindBufferTest::rejectsOneRow);
+        TestSupport.test("buffer fails the whole batch after a deadlock", WriteBehindBufferTest::deadlockFailsBatch);
+        TestSupport.test("buffer flushes on its own in INTERVAL mode", WriteBehindBufferTest::flushesOnInterval);
+        TestSupport.test("buffer rejects writes after close", WriteBehindBufferTest::rejectsAfterClose);
+    }
+
+    /**
+     * DeadlockTrigger fails every insert of DEADLOCK_EMAIL the way MySQL reports a deadlock
+     */
+    public static class DeadlockTrigger implements org.h2.api.Trigger {
+        @Override
+        public void fire(Connection connection, Object[] oldRow, Object[] newRow) throws SQLException {
+            if (DEADLOCK_EMAIL.equals(newRow[2])) {
+                throw new SQLTransactionRollbackException("Deadlock found when trying to get lock", "40001",
+                        DatabaseManager.DEADLOCK_ERROR_CODE);
+            }
+        }
+    }
+
+    private interface BufferCase {
+        void run(DatabaseManager dbManager, WriteBehindBuffer buffer) throws Exception;
+    }
+
+    private static void withBuffer(WriteBehindBuffer.FlushMode mode, BufferCase testCase) throws Exception {
+        DatabaseManager dbManager = TestSupport.newH2Database();
+        try (WriteBehindBuffer buffer = new WriteBehindBuffer(dbManager, mode, 50, 100, 1000)) {
+            testCase.run(dbManager, buffer);
+        } finally {
+            dbManager.closeConnection();
+        }
+    }
+
+    private static Student student(int n) {
+        return new Student("Student " + n, "student" + n + "@example.com", 20, "CS");
+    }
+
+    private static boolean await(CompletableFuture<Boolean> future) throws Exception {
+        return future.get(10, TimeUnit.SECONDS);
+    }
+
+    private static void insertsStudents() throws Exception {
+        withBuffer(WriteBehindBuffer.FlushMode.ON_SHUTDOWN, (dbManager, buffer) -> {
+            List<Student> students = new ArrayList<>();
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+            for (int n = 0; n < 250; n++) {
+                students.add(student(n));
+                futures.add(buffer.addStudent(students.get(n)));
+            }
+            buffer.flush();
+
+            for (int n = 0; n < students.size(); n++) {
+                TestSupport.check(await(futures.get(n)), "insert " + n);
+                Student stored = dbManager.findStudentById(students.get(n).getId());
+                TestSupport.check(stored != null && stored.getEmail().equals(students.get(n).getEmail()),
+                        "student " + n + " should be stored under its ID");
+            }
+            TestSupport.checkEquals(250, dbManager.getStudentCount(), "count");
+        });
+    }
+
+    private static void coalescesUpdates() throws Exception {
+        withBuffer(WriteBehindBuffer.FlushMode.ON_SHUTDOWN, (dbManager, buffer) -> {
+            Student added = student(1);
+            dbManager.addStudent(added);
+            int id = added.getId();
+
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+            for (int age = 21; age <= 30; age++) {
+                futures.add(buffer.updateStudent(id, new Student("Student 1", added.getEmail(), age, "CS")));
+            }
+            TestSupport.checkEquals(1, buffer.getPendingCount(), "pending writes after ten updates");
+            buffer.flush();
+
+            for (CompletableFuture<Boolean> future : futures) {
+                TestSupport.check(await(future), "every coalesced update should report success");
+            }
+            TestSupport.checkEquals(30, dbManager.findStudentById(id).getAge(), "age after the updates");
+        });
+    }
+
+    private static void deleteReplacesUpdate() throws Exception {
+        withBuffer(WriteBehindBuffer.FlushMode.ON_SHUTDOWN, (dbManager, buffer) -> {
+            Student added = student(1);
+            dbManager.addStudent(added);
+            int id = added.getId();
+
+            CompletableFuture<Boolean> update = buffer.updateStudent(id, student(2));
+            CompletableFuture<Boolean> delete = buffer.deleteStudent(id);
+            TestSupport.checkEquals(1, buffer.getPendingCount(), "pending writes");
+            buffer.flush();
+
+            TestSupport.check(await(update) && await(delete), "update and delete should both report success");
+            TestSupport.check(dbManager.findStudentById(id) == null, "student should be deleted");
+            TestSupport.checkEquals(0, dbManager.getStudentCount(), "count");
+        });
+    }
+
+    private static void keepsOrder() throws Exception {
+        withBuffer(WriteBehindBuffer.FlushMode.ON_SHUTDOWN, (dbManager, buffer) -> {
+            Student first = student(1);
+            Student second = student(2);
+            dbManager.addStudent(first);
+            dbManager.addStudent(second);
+
+            // Delete then update of one student: the update must run second and find nothing
+            CompletableFuture<Boolean> delete = buffer.deleteStudent(first.getId());
+            CompletableFuture<Boolean> update = buffer.updateStudent(first.getId(), student(3));
+            // Update then a second update then delete of another: only the delete remains
+            buffer.updateStudent(second.getId(), student(4));
+            CompletableFuture<Boolean> deleteSecond = buffer.deleteStudent(second.getId());
+            CompletableFuture<Boolean> deleteAgain = buffer.deleteStudent(second.getId());
+            buffer.flush();
+
+            TestSupport.check(await(delete), "first delete");
+            TestSupport.check(!await(update), "update after the delete should find no student");
+            TestSupport.check(await(deleteSecond), "delete of the second student");
+            TestSupport.check(!await(deleteAgain), "second delete should find no student");
+            TestSupport.checkEquals(0, dbManager.getStudentCount(), "count");
+        });
+    }
+
+    private static void rejectsOneRow() throws Exception {
+        withBuffer(WriteBehindBuffer.FlushMode.ON_SHUTDOWN, (dbManager, buffer) -> {
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+            for (int n = 0; n < 5; n++) {
+                futures.add(buffer.addStudent(student(n)));
+            }
+            Student duplicate = new Student("Duplicate", "student2@example.com", 20, "CS");
+            CompletableFuture<Boolean> rejected = buffer.addStudent(duplicate);
+            buffer.flush();
+
+            for (CompletableFuture<Boolean> future : futures) {
+                TestSupport.check(await(future), "other inserts should succeed");
+            }
+            TestSupport.check(!await(rejected), "duplicate email should be rejected");
+            TestSupport.checkEquals(0, duplicate.getId(), "rejected student's ID");
+            TestSupport.checkEquals(5, dbManager.getStudentCount(), "count");
+        });
+    }
+
+    private static void deadlockFailsBatch() throws Exception {
+        withBuffer(WriteBehindBuffer.FlushMode.ON_SHUTDOWN, (dbManager, buffer) -> {
+            try (PooledConnection pc = dbManager.getConnectionPool().borrow("test");
+                 Statement statement = pc.getConnection().createStatement()) {
+                statement.execute("CREATE TRIGGER deadlock_students BEFORE INSERT ON students FOR EACH ROW CALL '"
+                        + DeadlockTrigger.class.getName() + "'");
+            }
+
+            List<Student> students = new ArrayList<>();
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+            for (int n = 0; n < 3; n++) {
+                students.add(student(n));
+                futures.add(buffer.addStudent(students.get(n)));
+            }
+            futures.add(buffer.addStudent(new Student("Unlucky", DEADLOCK_EMAIL, 20, "CS")));
+            buffer.flush();
+
+            // The inserts before the deadlocked one were rolled back with it
+            for (CompletableFuture<Boolean> future : futures) {
+                try {
+                    future.join();
+                    TestSupport.check(false, "every write in the deadlocked batch should fail");
+                } catch (CompletionException expected) {
+                    TestSupport.check(expected.getCause() instanceof SQLException, "failure cause");
+                }
+            }
+            for (Student student : students) {
+                TestSupport.checkEquals(0, student.getId(), "ID of a rolled back insert");
+            }
+            TestSupport.checkEquals(0, dbManager.getStudentCount(), "maintained count");
+            TestSupport.checkEquals(0, dbManager.getAllStudents().size(), "rows in the table");
+        });
+    }
+
+    private static void flushesOnInterval() throws Exception {
+        withBuffer(WriteBehindBuffer.FlushMode.INTERVAL, (dbManager, buffer) -> {
+            Student added = student(1);
+            CompletableFuture<Boolean> future = buffer.addStudent(added);
+            TestSupport.check(await(future), "insert should be flushed without an explicit flush()");
+            TestSupport.check(dbManager.findStudentById(added.getId()) != null, "student should be stored");
+        });
+    }
+
+    private static void rejectsAfterClose() throws Exception {
+        DatabaseManager dbManager = TestSupport.newH2Database();
+        try {
+            WriteBehindBuffer buffer = new WriteBehindBuffer(dbManager, WriteBehindBuffer.FlushMode.ON_SHUTDOWN,
+                    50, 100, 1000);
+            CompletableFuture<Boolean> pending = buffer.addStudent(student(1));
+            buffer.close();
+            TestSupport.check(await(pending), "close() should flush pending writes");
+
+            try {
+                buffer.addStudent(student(2)).join();
+                TestSupport.check(false, "a write after close() should fail");
+            } catch (CompletionException expected) {
+                TestSupport.check(expected.getCause() instanceof IllegalStateException, "failure cause");
+            }
+            TestSupport.checkEquals(1, dbManager.getStudentCount(), "count");
+        } finally {
+            dbManager.closeConnection();
+        }
+    }
+}